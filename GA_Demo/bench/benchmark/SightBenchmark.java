@@ -0,0 +1,143 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import entities.SightTable;
+import logging.Logger;
+import map.TileMap;
+import map.TileType;
+
+// Kept out of src so it is neither shipped nor picked up by the test runner. Run it with bench and src
+// on the source path, for example: javac -d out -cp <libs> $(find src bench -name '*.java')
+public class SightBenchmark {
+
+	private static final int VIEW_RANGE = 5;
+	private static final int MAP_SIZE = 200;
+	private static final int ORIGINS = 20000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		SplittableRandom rand = new SplittableRandom(1);
+		TileMap map = new TileMap(MAP_SIZE, rand.split());
+		map.reset();
+		for (int i = 0; i < MAP_SIZE * MAP_SIZE / 10; i++) {
+			map.setEmptyTile(rand.nextBoolean() ? TileType.WALL : TileType.ENTITY);
+		}
+		int[] origins = new int[ORIGINS * 2];
+		for (int i = 0; i < origins.length; i++) {
+			origins[i] = VIEW_RANGE + rand.nextInt(MAP_SIZE - 2 * VIEW_RANGE);
+		}
+		SightTable table = SightTable.forRange(VIEW_RANGE);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			long bresenhamVisible = runBresenham(map, origins);
+			long bresenhamTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			long tableVisible = runTable(map, table, origins);
+			long tableTime = System.nanoTime() - start;
+
+			long checks = (long) ORIGINS * (table.getWidth() * table.getWidth() - 1);
+			Logger.info("Round " + round + ": Bresenham " + bresenhamTime / checks + " ns/check, table "
+					+ tableTime / checks + " ns/check, speedup " + (float) bresenhamTime / tableTime + "x (visible "
+					+ bresenhamVisible + "/" + tableVisible + ")");
+		}
+	}
+
+	private static long runBresenham(TileMap map, int[] origins) {
+		long visible = 0;
+		for (int i = 0; i < origins.length; i += 2) {
+			int x = origins[i];
+			int y = origins[i + 1];
+			for (int dy = -VIEW_RANGE; dy <= VIEW_RANGE; dy++) {
+				for (int dx = -VIEW_RANGE; dx <= VIEW_RANGE; dx++) {
+					if (dx == 0 && dy == 0) {
+						continue;
+					}
+					List<int[]> line = getTilesOnLine(x, y, x + dx, y + dy);
+					if (clear(map, line)) {
+						visible++;
+					}
+				}
+			}
+		}
+		return visible;
+	}
+
+	// Per-candidate Bresenham, as Entity computed it before the table
+	private static List<int[]> getTilesOnLine(int x0, int y0, int x1, int y1) {
+		List<int[]> tiles = new ArrayList<>();
+
+		int dx = Math.abs(x1 - x0);
+		int dy = Math.abs(y1 - y0);
+
+		int sx = x0 < x1 ? 1 : -1;
+		int sy = y0 < y1 ? 1 : -1;
+
+		int err = dx - dy;
+		int e2;
+
+		while (true) {
+			tiles.add(new int[] { x0, y0 });
+
+			if (x0 == x1 && y0 == y1)
+				break;
+
+			e2 = 2 * err;
+			if (e2 > -dy) {
+				err = err - dy;
+				x0 = x0 + sx;
+			}
+
+			if (e2 < dx) {
+				err = err + dx;
+				y0 = y0 + sy;
+			}
+		}
+
+		return tiles;
+	}
+
+	private static boolean clear(TileMap map, List<int[]> line) {
+		for (int i = 1; i < line.size(); i++) {
+			TileType tileType = map.getTile(line.get(i)[0], line.get(i)[1]);
+			if (tileType == TileType.WALL || tileType == TileType.ENTITY) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long runTable(TileMap map, SightTable table, int[] origins) {
+		long visible = 0;
+		for (int i = 0; i < origins.length; i += 2) {
+			int x = origins[i];
+			int y = origins[i + 1];
+			for (int dy = -VIEW_RANGE; dy <= VIEW_RANGE; dy++) {
+				for (int dx = -VIEW_RANGE; dx <= VIEW_RANGE; dx++) {
+					if (dx == 0 && dy == 0) {
+						continue;
+					}
+					int offset = table.offset(dx, dy);
+					if (clear(map, x, y, table.getRayX(offset), table.getRayY(offset))) {
+						visible++;
+					}
+				}
+			}
+		}
+		return visible;
+	}
+
+	private static boolean clear(TileMap map, int x, int y, int[] rayX, int[] rayY) {
+		for (int i = 0; i < rayX.length; i++) {
+			TileType tileType = map.getTile(x + rayX[i], y + rayY[i]);
+			if (tileType == TileType.WALL || tileType == TileType.ENTITY) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
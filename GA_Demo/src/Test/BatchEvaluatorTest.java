@@ -0,0 +1,63 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.Entity;
+import map.BatchEvaluator;
+import map.FitnessCache;
+
+public class BatchEvaluatorTest {
+
+	@Test
+	public void seededEvaluationTest() {
+		SplittableRandom rand = new SplittableRandom(11);
+		List<Entity> genomes = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			genomes.add(new Entity(rand.split()));
+		}
+
+		BatchEvaluator serial = new BatchEvaluator(1, 30, 20, 4, 500);
+		BatchEvaluator parallel = new BatchEvaluator(4, 30, 20, 4, 500);
+		int[] expected = serial.evaluate(genomes, 99);
+		int[] actual = parallel.evaluate(genomes, 99);
+		serial.shutdown();
+		parallel.shutdown();
+
+		assertEquals(genomes.size(), expected.length);
+		assertArrayEquals(expected, actual);
+		assertEquals(0, genomes.get(0).getFitness());
+	}
+
+	@Test
+	public void cachedEvaluationTest() {
+		SplittableRandom rand = new SplittableRandom(13);
+		List<Entity> genomes = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			Entity entity = new Entity(rand.split());
+			genomes.add(entity);
+			genomes.add(new Entity(entity));
+		}
+
+		BatchEvaluator evaluator = new BatchEvaluator(2, 30, 20, 1, 500);
+		FitnessCache cache = new FitnessCache(64);
+		evaluator.setCache(cache);
+		int[] first = evaluator.evaluate(genomes, 7);
+		long misses = cache.getMisses();
+		int[] second = evaluator.evaluate(genomes, 7);
+		evaluator.shutdown();
+
+		for (int i = 0; i < genomes.size(); i += 2) {
+			assertEquals(first[i], first[i + 1]);
+		}
+		assertArrayEquals(first, second);
+		assertEquals(genomes.size(), cache.getHits());
+		assertEquals(misses, cache.getMisses());
+	}
+}
@@ -0,0 +1,169 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.SplittableRandom;
+
+import org.joml.Vector2i;
+import org.junit.Test;
+
+import entities.Entity;
+import map.ByteTileGrid;
+import map.ChunkedTileGrid;
+import map.TileMap;
+import map.TileType;
+
+public class ChunkedTileGridTest {
+
+	// Not a multiple of the chunk size, so the last row and column of chunks hang over the edge
+	private static final int SIZE = 150;
+	private static final int CHUNK_SIZE = 64;
+
+	@Test
+	public void matchesByteGridTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		TileType[] types = TileType.values();
+		for (int round = 0; round < 20; round++) {
+			ChunkedTileGrid chunked = new ChunkedTileGrid(SIZE);
+			ByteTileGrid flat = new ByteTileGrid(SIZE);
+			TileType background = TileType.EMPTY;
+			TileType border = null;
+			for (int op = 0; op < 5000; op++) {
+				int roll = rand.nextInt(1000);
+				if (roll < 2) {
+					TileType type = types[rand.nextInt(types.length)];
+					chunked.fill(type);
+					flat.fill(type);
+					background = type;
+					border = null;
+				} else if (roll < 4) {
+					TileType type = types[rand.nextInt(types.length)];
+					chunked.border(type);
+					flat.border(type);
+					border = type;
+				} else {
+					// Bias towards the edges and a few chunks so cells are set back and chunks released
+					int x = rand.nextBoolean() ? rand.nextInt(SIZE) : SIZE - 1 - rand.nextInt(3);
+					int y = rand.nextInt(3) == 0 ? rand.nextInt(3) : rand.nextInt(SIZE);
+					TileType type = types[rand.nextInt(types.length)];
+					chunked.setTile(x, y, type);
+					flat.setTile(x, y, type);
+				}
+				if (op % 250 == 0) {
+					assertSameCells(flat, chunked);
+					// A chunk is kept exactly while it holds a cell that differs from the default
+					assertEquals(changedChunks(flat, background, border), chunked.getChunkCount());
+					for (TileType type : types) {
+						Vector2i found = chunked.findTile(type);
+						if (found == null) {
+							assertNull(flat.findTile(type));
+						} else {
+							assertEquals(type, flat.getTile(found.x(), found.y()));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void releasesChunksTest() {
+		ChunkedTileGrid grid = new ChunkedTileGrid(SIZE);
+		grid.fill(TileType.EMPTY);
+		grid.border(TileType.WALL);
+		assertEquals(0, grid.getChunkCount());
+
+		// Far more chunks than the initial table holds, so the table has to grow
+		for (int y = 1; y < SIZE - 1; y += 7) {
+			for (int x = 1; x < SIZE - 1; x += 7) {
+				grid.setTile(x, y, TileType.FOOD);
+			}
+		}
+		assertEquals(9, grid.getChunkCount());
+		// Setting a border cell to its border type needs no chunk
+		grid.setTile(0, 100, TileType.WALL);
+		assertEquals(9, grid.getChunkCount());
+
+		for (int y = 1; y < SIZE - 1; y += 7) {
+			for (int x = 1; x < SIZE - 1; x += 7) {
+				grid.setTile(x, y, TileType.EMPTY);
+			}
+		}
+		assertEquals(0, grid.getChunkCount());
+		assertEquals(TileType.WALL, grid.getTile(0, 100));
+		assertEquals(TileType.EMPTY, grid.getTile(100, 100));
+	}
+
+	@Test
+	public void borderReleasesChunksTest() {
+		ChunkedTileGrid grid = new ChunkedTileGrid(SIZE);
+		grid.setTile(0, 5, TileType.WALL);
+		grid.setTile(SIZE - 1, SIZE - 1, TileType.WALL);
+		assertEquals(2, grid.getChunkCount());
+
+		// Once the border is walls, those cells match the default and their chunks go
+		grid.border(TileType.WALL);
+		assertEquals(0, grid.getChunkCount());
+
+		grid.setTile(0, 5, TileType.FOOD);
+		grid.fill(TileType.EMPTY);
+		assertEquals(0, grid.getChunkCount());
+		assertEquals(TileType.EMPTY, grid.getTile(0, 5));
+	}
+
+	@Test
+	public void spawnsIntoLastEmptyCellTest() {
+		TileMap map = new TileMap(new ChunkedTileGrid(SIZE), new SplittableRandom(2));
+		map.reset();
+		for (int y = 1; y < SIZE - 1; y++) {
+			for (int x = 1; x < SIZE - 1; x++) {
+				if (x != 140 || y != 3) {
+					map.setTile(x, y, TileType.FOOD);
+				}
+			}
+		}
+
+		// Random probes all but certainly miss the one empty cell, the grid search has to find it
+		Entity entity = new Entity(new SplittableRandom(3));
+		map.spawn(entity);
+		assertEquals(new Vector2i(140, 3), entity.getPosition());
+		assertFalse(map.trySpawn(new Entity(new SplittableRandom(4))));
+	}
+
+	private static int changedChunks(ByteTileGrid grid, TileType background, TileType border) {
+		int chunks = (SIZE + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		boolean[] changed = new boolean[chunks * chunks];
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				boolean edge = x == 0 || y == 0 || x == SIZE - 1 || y == SIZE - 1;
+				TileType expected = border != null && edge ? border : background;
+				if (grid.getTile(x, y) != expected) {
+					changed[(y / CHUNK_SIZE) * chunks + x / CHUNK_SIZE] = true;
+				}
+			}
+		}
+		int count = 0;
+		for (boolean chunk : changed) {
+			if (chunk) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void assertSameCells(ByteTileGrid expected, ChunkedTileGrid actual) {
+		byte[] expectedCells = new byte[SIZE * SIZE];
+		byte[] actualCells = new byte[SIZE * SIZE];
+		expected.copyOrdinals(expectedCells);
+		actual.copyOrdinals(actualCells);
+		assertArrayEquals(expectedCells, actualCells);
+		for (int i = 0; i < 1000; i++) {
+			int x = (i * 7919) % SIZE;
+			int y = (i * 104729) % SIZE;
+			assertEquals(expected.getTile(x, y), actual.getTile(x, y));
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import actions.Action;
+import entities.Entity;
+import genes.PackedGenome;
+import map.ChunkedTileGrid;
+import map.DistanceField;
+import map.TileMap;
+import map.TileType;
+
+public class DistanceFieldTest {
+
+	@Test
+	public void firstStepTest() {
+		TileMap map = new TileMap(20, new SplittableRandom(1));
+		map.reset();
+		map.setTile(5, 5, TileType.FOOD);
+		map.setTile(7, 4, TileType.WALL);
+		map.setTile(7, 5, TileType.WALL);
+		map.setTile(7, 6, TileType.WALL);
+
+		DistanceField field = new DistanceField(TileType.FOOD, 20, 5);
+		field.rebuild(map);
+
+		assertEquals(6 * 20 + 6, field.firstStep(7, 7, DistanceField.NONE));
+		assertEquals(4 * 20 + 3, field.firstStep(2, 5, DistanceField.NONE));
+		// Walls have to be walked around, so food behind one is further than it looks
+		assertEquals(DistanceField.NONE, field.firstStep(11, 5, DistanceField.NONE));
+		assertEquals(DistanceField.NONE, field.firstStep(15, 15, DistanceField.NONE));
+	}
+
+	@Test
+	public void excludedSourceTest() {
+		TileMap map = new TileMap(20, new SplittableRandom(1));
+		map.reset();
+		map.setTile(5, 5, TileType.ENTITY);
+		map.setTile(9, 5, TileType.ENTITY);
+
+		DistanceField field = new DistanceField(TileType.ENTITY, 20, 5);
+		field.rebuild(map);
+
+		assertEquals(4 * 20 + 6, field.firstStep(5, 5, 5 * 20 + 5));
+		assertEquals(4 * 20 + 8, field.firstStep(9, 5, 5 * 20 + 9));
+	}
+
+	@Test
+	public void entityFollowsFieldTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		TileMap map = new TileMap(10, rand.split());
+		Entity entity = new Entity(foodSeeker(rand), rand.split());
+		spawnAt(map, 2, 5, entity);
+
+		// The food at (5, 5) is behind a wall, out of sight but a few steps around it
+		map.setTile(3, 4, TileType.WALL);
+		map.setTile(3, 5, TileType.WALL);
+		map.setTile(3, 6, TileType.WALL);
+		map.setTile(5, 5, TileType.FOOD);
+		map.enableDistanceFields(Entity.VIEW_RANGE);
+
+		map.update();
+
+		int step = map.getDistanceField(TileType.FOOD).firstStep(entity.getPosition().x(), entity.getPosition().y(),
+				DistanceField.NONE);
+		assertEquals(2, entity.getPosition().x());
+		assertTrue(entity.getPosition().y() == 4 || entity.getPosition().y() == 6);
+		// And it keeps going around the wall
+		map.update();
+		assertEquals(step, entity.getPosition().y() * 10 + entity.getPosition().x());
+	}
+
+	@Test
+	public void fieldMatchesViewOnOpenGroundTest() {
+		SplittableRandom rand = new SplittableRandom(3);
+		long genome = foodSeeker(rand);
+		int range = Entity.VIEW_RANGE;
+		for (int dy = -range; dy <= range; dy++) {
+			for (int dx = -range; dx <= range; dx++) {
+				if (dx == 0 && dy == 0) {
+					continue;
+				}
+				// With one food in plain sight, both find it and close in one cell a tick
+				int distance = Math.max(Math.abs(dx), Math.abs(dy));
+				assertEquals(distance, ticksToFood(genome, dx, dy, false));
+				assertEquals(distance, ticksToFood(genome, dx, dy, true));
+			}
+		}
+	}
+
+	private static int ticksToFood(long genome, int dx, int dy, boolean fields) {
+		TileMap map = new TileMap(20, new SplittableRandom(4));
+		Entity entity = new Entity(genome, new SplittableRandom(5));
+		spawnAt(map, 10, 10, entity);
+		map.setTile(10 + dx, 10 + dy, TileType.FOOD);
+		if (fields) {
+			map.enableDistanceFields(Entity.VIEW_RANGE);
+		}
+		int ticks = 0;
+		while (entity.getPosition().x() != 10 + dx || entity.getPosition().y() != 10 + dy) {
+			map.update();
+			ticks++;
+			if (ticks > 2 * Entity.VIEW_RANGE) {
+				return -1;
+			}
+		}
+		return ticks;
+	}
+
+	// Always hungry and always heads for food first
+	private static long foodSeeker(SplittableRandom rand) {
+		long genome = PackedGenome.withHunger(PackedGenome.random(PackedGenome.HUNGER_MAX, rand),
+				PackedGenome.HUNGER_MAX);
+		genome = PackedGenome.withPriority(genome, 0, TileType.FOOD.ordinal());
+		return PackedGenome.withReaction(genome, TileType.FOOD.ordinal(), Action.TOWARDS.ordinal());
+	}
+
+	// Walls off every other cell for the spawn, then opens the map back up
+	private static void spawnAt(TileMap map, int spawnX, int spawnY, Entity entity) {
+		int size = map.getSize();
+		map.reset();
+		for (int y = 1; y < size - 1; y++) {
+			for (int x = 1; x < size - 1; x++) {
+				if (x != spawnX || y != spawnY) {
+					map.setTile(x, y, TileType.WALL);
+				}
+			}
+		}
+		map.spawn(entity);
+		for (int y = 1; y < size - 1; y++) {
+			for (int x = 1; x < size - 1; x++) {
+				if (x != spawnX || y != spawnY) {
+					map.setTile(x, y, TileType.EMPTY);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void matchesBruteForceTest() {
+		SplittableRandom rand = new SplittableRandom(2);
+		int size = 30;
+		int range = 5;
+		for (int round = 0; round < 5; round++) {
+			// Dense targets, so the frontier far outgrows the queue's initial capacity
+			TileMap map = new TileMap(size, rand.split());
+			map.reset();
+			for (int y = 1; y < size - 1; y++) {
+				for (int x = 1; x < size - 1; x++) {
+					int roll = rand.nextInt(10);
+					map.setTile(x, y, roll < 3 ? TileType.FOOD
+							: roll < 5 ? TileType.ENTITY : roll < 6 ? TileType.WALL : TileType.EMPTY);
+				}
+			}
+
+			for (TileType target : new TileType[] { TileType.FOOD, TileType.ENTITY }) {
+				DistanceField field = new DistanceField(target, size, range);
+				field.rebuild(map);
+				int[][] distances = bruteForce(map, target, range);
+				for (int y = 0; y < size; y++) {
+					for (int x = 0; x < size; x++) {
+						int excluded = map.getTile(x, y) == target ? y * size + x : DistanceField.NONE;
+						assertEquals(expectedStep(distances, size, x, y, excluded), field.firstStep(x, y, excluded));
+					}
+				}
+			}
+		}
+	}
+
+	// Distance from every target to every cell it reaches within range, walking only empty and food cells
+	private static int[][] bruteForce(TileMap map, TileType target, int range) {
+		int size = map.getSize();
+		int[][] distances = new int[size * size][];
+		int[] queue = new int[size * size];
+		for (int source = 0; source < size * size; source++) {
+			if (map.getTile(source % size, source / size) != target) {
+				continue;
+			}
+			int[] distance = new int[size * size];
+			Arrays.fill(distance, Integer.MAX_VALUE);
+			distance[source] = 0;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = source;
+			while (head < tail) {
+				int cell = queue[head++];
+				if (distance[cell] >= range - 1) {
+					continue;
+				}
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						int x = cell % size + dx;
+						int y = cell / size + dy;
+						if (map.outOfRange(x, y) || distance[y * size + x] != Integer.MAX_VALUE) {
+							continue;
+						}
+						TileType type = map.getTile(x, y);
+						if (type == TileType.EMPTY || type == TileType.FOOD) {
+							distance[y * size + x] = distance[cell] + 1;
+							queue[tail++] = y * size + x;
+						}
+					}
+				}
+			}
+			distances[source] = distance;
+		}
+		return distances;
+	}
+
+	// The neighbour nearest to any target but the excluded one, the first in DistanceField's scan order on ties
+	private static int expectedStep(int[][] distances, int size, int x, int y, int excluded) {
+		int best = DistanceField.NONE;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				int nextX = x + dx;
+				int nextY = y + dy;
+				if ((dx == 0 && dy == 0) || nextX < 0 || nextY < 0 || nextX >= size || nextY >= size) {
+					continue;
+				}
+				int next = nextY * size + nextX;
+				int distance = Integer.MAX_VALUE;
+				for (int source = 0; source < distances.length; source++) {
+					if (distances[source] != null && source != excluded) {
+						distance = Math.min(distance, distances[source][next]);
+					}
+				}
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					best = next;
+				}
+			}
+		}
+		return best;
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void sparseGridTest() {
+		TileMap map = new TileMap(new ChunkedTileGrid(100), new SplittableRandom(1));
+		map.enableDistanceFields(Entity.VIEW_RANGE);
+	}
+}
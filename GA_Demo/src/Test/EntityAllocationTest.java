@@ -0,0 +1,86 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.Entity;
+import map.TileMap;
+import map.TileType;
+
+public class EntityAllocationTest {
+
+	private static final int MAP_SIZE = 40;
+	private static final int ENTITIES = 50;
+	private static final int TICKS = 2000;
+
+	@Test
+	public void updateDoesNotAllocateTest() {
+		SplittableRandom rand = new SplittableRandom(42);
+		TileMap map = new TileMap(MAP_SIZE, rand.split());
+		map.reset();
+		List<Entity> entities = new ArrayList<>();
+		for (int i = 0; i < ENTITIES; i++) {
+			Entity entity = new Entity(rand.split());
+			map.spawn(entity);
+			entities.add(entity);
+		}
+		for (int i = 0; i < MAP_SIZE * 4; i++) {
+			map.setEmptyTile(TileType.FOOD);
+		}
+
+		tick(entities, map, TICKS);
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		long overhead = threads.getThreadAllocatedBytes(threadId) - before;
+
+		before = threads.getThreadAllocatedBytes(threadId);
+		tick(entities, map, TICKS);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+		assertEquals(0, allocated);
+	}
+
+	@Test
+	public void registryStaysBoundedTest() {
+		SplittableRandom rand = new SplittableRandom(7);
+		TileMap map = new TileMap(MAP_SIZE, rand.split());
+		map.reset();
+		for (int i = 0; i < MAP_SIZE * 4; i++) {
+			map.setEmptyTile(TileType.FOOD);
+		}
+
+		// Refill the population after every tick, the way the steady-state village replaces its dead
+		int spawned = 0;
+		for (int t = 0; t < TICKS; t++) {
+			while (map.getEntities().size() < ENTITIES) {
+				map.trySpawn(new Entity(rand.split()));
+				spawned++;
+			}
+			map.update();
+			if (t % 5 == 0) {
+				map.setEmptyTile(TileType.FOOD);
+			}
+		}
+
+		assertTrue(spawned > ENTITIES * 10);
+		assertTrue(map.getRegistrySize() <= ENTITIES);
+	}
+
+	private static void tick(List<Entity> entities, TileMap map, int ticks) {
+		for (int t = 0; t < ticks; t++) {
+			for (int i = 0; i < entities.size(); i++) {
+				entities.get(i).update(map);
+			}
+		}
+	}
+}
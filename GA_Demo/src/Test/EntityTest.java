@@ -0,0 +1,64 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.Entity;
+import genes.PackedGenome;
+import map.TileMap;
+import map.TileType;
+
+public class EntityTest {
+
+	@Test
+	public void starvesWithoutTargetTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		// A single cell map leaves nothing in view, so the entity never has a move
+		TileMap map = new TileMap(1, rand.split());
+		map.reset();
+		map.setTile(0, 0, TileType.EMPTY);
+		Entity entity = new Entity(PackedGenome.random(15, rand), rand.split());
+		map.spawn(entity);
+		for (int tick = 0; tick < 30 && !map.getEntities().isEmpty(); tick++) {
+			map.update();
+		}
+
+		assertTrue(entity.isDead());
+		assertTrue(map.getEntities().isEmpty());
+	}
+
+	@Test
+	public void inspectingGenesKeepsBehaviourTest() {
+		long genome = PackedGenome.random(PackedGenome.HUNGER_MAX, new SplittableRandom(2));
+		Entity watched = runAlone(genome, true);
+		Entity unwatched = runAlone(genome, false);
+
+		assertEquals(unwatched.getFitness(), watched.getFitness());
+		assertEquals(unwatched.getPosition(), watched.getPosition());
+	}
+
+	private static Entity runAlone(long genome, boolean inspect) {
+		SplittableRandom rand = new SplittableRandom(3);
+		TileMap map = new TileMap(20, rand.split());
+		map.reset();
+		for (int i = 0; i < 30; i++) {
+			map.setEmptyTile(TileType.FOOD);
+		}
+		Entity entity = new Entity(genome, rand.split());
+		map.spawn(entity);
+		for (int tick = 0; tick < 50 && !entity.isDead(); tick++) {
+			if (inspect) {
+				entity.getPriorityChromosome();
+				entity.getReactionsChromosome();
+				entity.getAggressionGene();
+				entity.getHungerGene();
+			}
+			map.update();
+		}
+		return entity;
+	}
+}
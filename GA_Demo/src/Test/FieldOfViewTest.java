@@ -0,0 +1,137 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.FieldOfView;
+import entities.SightTable;
+import map.TileMap;
+import map.TileType;
+
+public class FieldOfViewTest {
+
+	private static final int RANGE = 5;
+	private static final int MAP_SIZE = 16;
+	private static final int TYPES = TileType.values().length;
+
+	@Test
+	public void matchesLineWalkTest() {
+		FieldOfView view = FieldOfView.forRange(RANGE);
+		SightTable table = view.getTable();
+		int cells = table.getWidth() * table.getWidth();
+		SplittableRandom rand = new SplittableRandom(1);
+
+		for (int round = 0; round < 20; round++) {
+			TileMap map = randomMap(rand);
+			// Every origin, so windows clipped by each map edge and corner are covered
+			for (int y = 0; y < MAP_SIZE; y++) {
+				for (int x = 0; x < MAP_SIZE; x++) {
+					int[][] actual = new int[TYPES][cells];
+					int[] actualCounts = new int[TYPES];
+					view.compute(map, x, y, new boolean[cells], new boolean[cells], actual, actualCounts);
+
+					int[][] expected = new int[TYPES][cells];
+					int[] expectedCounts = new int[TYPES];
+					for (int dy = -RANGE; dy <= RANGE; dy++) {
+						for (int dx = -RANGE; dx <= RANGE; dx++) {
+							if ((dx == 0 && dy == 0) || map.outOfRange(x + dx, y + dy)) {
+								continue;
+							}
+							List<int[]> line = SightTableTest.getTilesOnLine(x, y, x + dx, y + dy);
+							if (inSight(map, line)) {
+								int type = map.getTile(x + dx, y + dy).ordinal();
+								expected[type][expectedCounts[type]++] = table.offset(dx, dy);
+								int[] step = line.get(1);
+								assertEquals(table.offset(step[0] - x, step[1] - y),
+										view.getFirstStep(table.offset(dx, dy)));
+							}
+						}
+					}
+
+					for (int type = 0; type < TYPES; type++) {
+						assertArrayEquals(sorted(expected[type], expectedCounts[type]),
+								sorted(actual[type], actualCounts[type]));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void blockersAreNotTargetsTest() {
+		FieldOfView view = FieldOfView.forRange(RANGE);
+		SightTable table = view.getTable();
+		int cells = table.getWidth() * table.getWidth();
+		TileMap map = new TileMap(MAP_SIZE, new SplittableRandom(1));
+		map.reset();
+		map.setTile(8, 7, TileType.WALL);
+		map.setTile(7, 8, TileType.ENTITY);
+		map.setTile(10, 7, TileType.FOOD);
+
+		int[][] visible = new int[TYPES][cells];
+		int[] counts = new int[TYPES];
+		view.compute(map, 7, 7, new boolean[cells], new boolean[cells], visible, counts);
+
+		// Blockers are never targets, as with the old line walk, and hide the cells behind them
+		assertEquals(0, counts[TileType.WALL.ordinal()]);
+		assertEquals(0, counts[TileType.ENTITY.ordinal()]);
+		assertEquals(0, counts[TileType.FOOD.ordinal()]);
+		assertFalse(contains(visible, counts, TileType.EMPTY, table.offset(2, 0)));
+		assertFalse(contains(visible, counts, TileType.EMPTY, table.offset(0, 2)));
+		assertTrue(contains(visible, counts, TileType.EMPTY, table.offset(1, 1)));
+	}
+
+	// The old Entity.inSight test, which also rejects a target that is itself a wall or an entity
+	private static boolean inSight(TileMap map, List<int[]> line) {
+		for (int i = 1; i < line.size(); i++) {
+			TileType tileType = map.getTile(line.get(i)[0], line.get(i)[1]);
+			if (tileType == TileType.WALL || tileType == TileType.ENTITY) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static TileMap randomMap(SplittableRandom rand) {
+		TileMap map = new TileMap(MAP_SIZE, rand.split());
+		map.reset();
+		for (int y = 0; y < MAP_SIZE; y++) {
+			for (int x = 0; x < MAP_SIZE; x++) {
+				int roll = rand.nextInt(10);
+				if (roll < 2) {
+					map.setTile(x, y, TileType.WALL);
+				} else if (roll < 3) {
+					map.setTile(x, y, TileType.ENTITY);
+				} else if (roll < 4) {
+					map.setTile(x, y, TileType.FOOD);
+				} else {
+					map.setTile(x, y, TileType.EMPTY);
+				}
+			}
+		}
+		return map;
+	}
+
+	private static boolean contains(int[][] cells, int[] counts, TileType type, int offset) {
+		for (int i = 0; i < counts[type.ordinal()]; i++) {
+			if (cells[type.ordinal()][i] == offset) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] sorted(int[] cells, int count) {
+		int[] copy = Arrays.copyOf(cells, count);
+		Arrays.sort(copy);
+		return copy;
+	}
+}
@@ -0,0 +1,94 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.Entity;
+import map.FreeCells;
+import map.TileMap;
+import map.TileType;
+
+public class FreeCellsTest {
+
+	private static final int SIZE = 20;
+
+	@Test
+	public void matchesHashSetTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		FreeCells cells = new FreeCells(SIZE);
+		Set<Integer> reference = new HashSet<>();
+		for (int op = 0; op < 100000; op++) {
+			int x = rand.nextInt(SIZE);
+			int y = rand.nextInt(SIZE);
+			int roll = rand.nextInt(100);
+			if (roll < 50) {
+				cells.add(x, y);
+				reference.add(y * SIZE + x);
+			} else if (roll < 99) {
+				cells.remove(x, y);
+				reference.remove(y * SIZE + x);
+			} else {
+				cells.clear();
+				reference.clear();
+			}
+			assertEquals(reference.size(), cells.size());
+			if (!cells.isEmpty()) {
+				assertTrue(reference.contains(cells.sample(rand)));
+			}
+		}
+		for (int cell = 0; cell < SIZE * SIZE; cell++) {
+			assertEquals(reference.contains(cell), cells.contains(cell % SIZE, cell / SIZE));
+		}
+	}
+
+	@Test
+	public void tracksEmptyTilesTest() {
+		SplittableRandom rand = new SplittableRandom(2);
+		TileMap map = new TileMap(SIZE, rand.split());
+		for (int round = 0; round < 5; round++) {
+			map.reset();
+			assertTracksEmpty(map);
+			for (int i = 0; i < 30; i++) {
+				map.spawn(new Entity(rand.split()));
+				map.setEmptyTile(TileType.FOOD);
+			}
+			assertTracksEmpty(map);
+
+			// Entities move, eat, kill and starve, and their cells are handed back as they are removed
+			for (int tick = 0; tick < 200 && !map.getEntities().isEmpty(); tick++) {
+				map.update();
+				if (tick % 3 == 0) {
+					map.trySpawn(new Entity(rand.split()));
+				}
+				int x = 1 + rand.nextInt(SIZE - 2);
+				int y = 1 + rand.nextInt(SIZE - 2);
+				if (tick % 7 == 0 && map.getTile(x, y) != TileType.ENTITY) {
+					map.setTile(x, y, rand.nextBoolean() ? TileType.WALL : TileType.EMPTY);
+				}
+				assertTracksEmpty(map);
+			}
+		}
+	}
+
+	// The set holds exactly the EMPTY cells of the map
+	private static void assertTracksEmpty(TileMap map) {
+		FreeCells cells = map.getFreeCells();
+		int empty = 0;
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				boolean isEmpty = map.getTile(x, y) == TileType.EMPTY;
+				assertEquals(isEmpty, cells.contains(x, y));
+				if (isEmpty) {
+					empty++;
+				}
+			}
+		}
+		assertEquals(empty, cells.size());
+	}
+}
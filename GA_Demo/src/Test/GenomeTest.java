@@ -0,0 +1,91 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import actions.Action;
+import genes.BooleanGene;
+import genes.GeneFactory;
+import genes.GeneRegistry;
+import genes.Genome;
+import genes.IntegerGene;
+import genes.MapGene;
+import genes.OrderGene;
+import map.TileType;
+
+public class GenomeTest {
+
+	private GeneRegistry registry = new GeneRegistry()
+			.register("Priority Gene", GeneFactory.ofOrder(TileType.class))
+			.register("Reaction Gene", GeneFactory.ofMap(TileType.class, Action.class))
+			.register("Aggression Gene", GeneFactory.ofBoolean())
+			.register("Hunger Gene", GeneFactory.ofInteger(15));
+
+	@Test
+	public void composeTest() {
+		SplittableRandom rand = new SplittableRandom(4);
+		Genome genome = new Genome(registry, rand, "Priority Gene", "Reaction Gene", "Aggression Gene",
+				"Hunger Gene");
+		assertEquals(4, genome.size());
+
+		IntegerGene hunger = genome.get("Hunger Gene", IntegerGene.class);
+		assertEquals(hunger.getValue().intValue(), hunger.getInt());
+		BooleanGene aggression = genome.get("Aggression Gene", BooleanGene.class);
+		assertEquals(aggression.getValue(), aggression.getBoolean());
+
+		@SuppressWarnings("unchecked")
+		OrderGene<TileType> priority = genome.get("Priority Gene", OrderGene.class);
+		for (int rank = 0; rank < priority.size(); rank++) {
+			assertEquals(priority.getValue().get(rank).ordinal(), priority.getOrdinal(rank));
+		}
+		@SuppressWarnings("unchecked")
+		MapGene<TileType, Action> reaction = genome.get("Reaction Gene", MapGene.class);
+		for (TileType tile : TileType.values()) {
+			assertEquals(reaction.getSmallValue(tile).ordinal(), reaction.getOrdinal(tile));
+		}
+	}
+
+	@Test
+	public void breedTest() {
+		SplittableRandom rand = new SplittableRandom(5);
+		Genome parent1 = new Genome(registry, rand, "Hunger Gene", "Aggression Gene", "Reaction Gene");
+		Genome parent2 = new Genome(registry, rand, "Hunger Gene", "Aggression Gene", "Reaction Gene");
+		Map<TileType, Action> reactions1 = new EnumMap<>(reactions(parent1));
+		Map<TileType, Action> reactions2 = new EnumMap<>(reactions(parent2));
+		Genome child = new Genome(parent1, parent2, rand);
+
+		int hunger1 = parent1.get("Hunger Gene", IntegerGene.class).getInt();
+		int hunger2 = parent2.get("Hunger Gene", IntegerGene.class).getInt();
+		assertEquals((hunger1 + hunger2) / 2, child.get("Hunger Gene", IntegerGene.class).getInt());
+		for (TileType tile : TileType.values()) {
+			Action action = reactions(child).get(tile);
+			assertTrue(action == reactions1.get(tile) || action == reactions2.get(tile));
+		}
+
+		Genome copy = new Genome(child);
+		assertNotSame(child.get(0), copy.get(0));
+		assertEquals(child.toString(), copy.toString());
+		child.mutate(1, rand);
+		assertTrue(child.get("Hunger Gene", IntegerGene.class).getInt() <= 15);
+		// Breeding and mutating the child leaves both parents as they were
+		assertEquals(reactions1, reactions(parent1));
+		assertEquals(reactions2, reactions(parent2));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<TileType, Action> reactions(Genome genome) {
+		return genome.get("Reaction Gene", MapGene.class).getValue();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void duplicateKindTest() {
+		registry.register("Hunger Gene", GeneFactory.ofInteger(10));
+	}
+}
@@ -0,0 +1,120 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import map.OccupancyIndex;
+
+public class OccupancyIndexTest {
+
+	private static final int AREA = 24;
+
+	@Test
+	public void matchesHashMapTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		OccupancyIndex index = new OccupancyIndex();
+		Map<Long, Integer> reference = new HashMap<>();
+
+		// A small area keeps the table dense, so probe chains are long and deletes shift a lot
+		for (int op = 0; op < 200000; op++) {
+			int x = rand.nextInt(AREA);
+			int y = rand.nextInt(AREA);
+			int roll = rand.nextInt(10);
+			if (roll < 4) {
+				int id = rand.nextInt(1000);
+				index.put(x, y, id);
+				reference.put(key(x, y), id);
+			} else if (roll < 7) {
+				Integer expected = reference.remove(key(x, y));
+				assertEquals(expected == null ? OccupancyIndex.NONE : expected.intValue(), index.remove(x, y));
+			} else if (roll < 9) {
+				int toX = rand.nextInt(AREA);
+				int toY = rand.nextInt(AREA);
+				index.move(x, y, toX, toY);
+				Integer id = reference.remove(key(x, y));
+				if (id != null) {
+					reference.put(key(toX, toY), id);
+				}
+			} else if (rand.nextInt(100) == 0) {
+				index.clear();
+				reference.clear();
+			}
+			assertEquals(reference.size(), index.size());
+			if (op % 1000 == 0) {
+				assertSameEntries(reference, index);
+			}
+		}
+		assertSameEntries(reference, index);
+	}
+
+	@Test
+	public void wrapAroundTest() {
+		// Keys whose home is the last slot of the initial table probe past the end into slot 0
+		List<int[]> tail = new ArrayList<>();
+		for (int x = 0; tail.size() < 6; x++) {
+			if ((hash(key(x, 7)) & 15) >= 14) {
+				tail.add(new int[] { x, 7 });
+			}
+		}
+
+		for (int first = 0; first < tail.size(); first++) {
+			OccupancyIndex index = new OccupancyIndex();
+			for (int i = 0; i < tail.size(); i++) {
+				index.put(tail.get(i)[0], tail.get(i)[1], i);
+			}
+			// Removing from any point of the wrapped chain must leave the rest reachable
+			index.remove(tail.get(first)[0], tail.get(first)[1]);
+			for (int i = 0; i < tail.size(); i++) {
+				int expected = i == first ? OccupancyIndex.NONE : i;
+				assertEquals(expected, index.get(tail.get(i)[0], tail.get(i)[1]));
+			}
+			assertEquals(tail.size() - 1, index.size());
+		}
+	}
+
+	@Test
+	public void growthTest() {
+		OccupancyIndex index = new OccupancyIndex();
+		for (int i = 0; i < 5000; i++) {
+			index.put(i % 100, i / 100, i);
+		}
+		assertEquals(5000, index.size());
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(i, index.get(i % 100, i / 100));
+		}
+		for (int i = 0; i < 5000; i += 2) {
+			index.remove(i % 100, i / 100);
+		}
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(i % 2 == 0 ? OccupancyIndex.NONE : i, index.get(i % 100, i / 100));
+		}
+	}
+
+	private static void assertSameEntries(Map<Long, Integer> reference, OccupancyIndex index) {
+		for (int y = 0; y < AREA; y++) {
+			for (int x = 0; x < AREA; x++) {
+				Integer expected = reference.get(key(x, y));
+				assertEquals(expected == null ? OccupancyIndex.NONE : expected.intValue(), index.get(x, y));
+			}
+		}
+	}
+
+	private static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	// Same mix as OccupancyIndex, to pick keys that land at the end of the table
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
@@ -1,6 +1,12 @@
 package Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SplittableRandom;
 
 import org.junit.Test;
 
@@ -20,7 +26,157 @@ public class OrderChromesomeTest {
 
 	}
 
+	@Test
+	public void crossoverOperatorsTest() {
+		SplittableRandom rand = new SplittableRandom(9);
+		for (int i = 0; i < 200; i++) {
+			OrderGene<LargeEnum> parent1 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			OrderGene<LargeEnum> parent2 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			assertPermutation(parent1);
+			assertPermutation(new OrderGene<>(parent1, parent2, rand));
+
+			OrderGene<LargeEnum> child = OrderGene.cycleCrossover(parent1, parent2, rand);
+			assertPermutation(child);
+			for (int rank = 0; rank < child.size(); rank++) {
+				LargeEnum value = child.getValue().get(rank);
+				assertTrue(value == parent1.getValue().get(rank) || value == parent2.getValue().get(rank));
+			}
+		}
+	}
+
+	@Test
+	public void orderCrossoverTest() {
+		SplittableRandom rand = new SplittableRandom(13);
+		for (int i = 0; i < 200; i++) {
+			OrderGene<LargeEnum> parent1 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			OrderGene<LargeEnum> parent2 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			long seed = rand.nextLong();
+			int[] slice = slice(new SplittableRandom(seed), parent1.size());
+			List<LargeEnum> values1 = parent1.getValue();
+			List<LargeEnum> values2 = parent2.getValue();
+			OrderGene<LargeEnum> gene = OrderGene.orderCrossover(parent1, parent2, new SplittableRandom(seed));
+			List<LargeEnum> child = gene.getValue();
+			assertPermutation(gene);
+
+			// The slice stays where it was in parent1
+			for (int rank = slice[0]; rank <= slice[1]; rank++) {
+				assertEquals(values1.get(rank), child.get(rank));
+			}
+			// Everything else follows parent2's order, both read on from just after the slice
+			List<LargeEnum> rest = new ArrayList<>();
+			for (int offset = 1; offset <= values2.size(); offset++) {
+				LargeEnum value = values2.get((slice[1] + offset) % values2.size());
+				if (!values1.subList(slice[0], slice[1] + 1).contains(value)) {
+					rest.add(value);
+				}
+			}
+			for (int j = 0; j < rest.size(); j++) {
+				assertEquals(rest.get(j), child.get((slice[1] + 1 + j) % child.size()));
+			}
+		}
+	}
+
+	@Test
+	public void partiallyMappedCrossoverTest() {
+		SplittableRandom rand = new SplittableRandom(14);
+		for (int i = 0; i < 200; i++) {
+			OrderGene<LargeEnum> parent1 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			OrderGene<LargeEnum> parent2 = new OrderGene<>("Parent", LargeEnum.class, rand);
+			long seed = rand.nextLong();
+			int[] slice = slice(new SplittableRandom(seed), parent1.size());
+			List<LargeEnum> values1 = parent1.getValue();
+			List<LargeEnum> values2 = parent2.getValue();
+			OrderGene<LargeEnum> gene = OrderGene.partiallyMappedCrossover(parent1, parent2, new SplittableRandom(seed));
+			List<LargeEnum> child = gene.getValue();
+			assertPermutation(gene);
+
+			List<LargeEnum> segment = values1.subList(slice[0], slice[1] + 1);
+			for (int rank = 0; rank < child.size(); rank++) {
+				if (rank >= slice[0] && rank <= slice[1]) {
+					assertEquals(values1.get(rank), child.get(rank));
+					continue;
+				}
+				// Outside the slice parent2's value is kept, or followed through the slice's mapping until it is free
+				LargeEnum expected = values2.get(rank);
+				while (segment.contains(expected)) {
+					expected = values2.get(values1.indexOf(expected));
+				}
+				assertEquals(expected, child.get(rank));
+			}
+		}
+	}
+
+	@Test
+	public void mutationOperatorsTest() {
+		SplittableRandom rand = new SplittableRandom(10);
+		OrderGene<LargeEnum> gene = new OrderGene<>("Gene", LargeEnum.class, rand);
+		for (int i = 0; i < 200; i++) {
+			gene.invert();
+			assertPermutation(gene);
+			gene.scramble();
+			assertPermutation(gene);
+			gene.switchPriorities();
+			gene.switchRandomPriorities();
+			assertPermutation(gene);
+		}
+	}
+
+	@Test(timeout = 1000)
+	public void singleValueTest() {
+		SplittableRandom rand = new SplittableRandom(11);
+		OrderGene<SingleEnum> gene = new OrderGene<>("Single", SingleEnum.class, rand);
+		gene.switchPriorities();
+		gene.switchRandomPriorities();
+		gene.invert();
+		gene.scramble();
+		gene.mutate();
+		assertPermutation(gene);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void valueIsReadOnlyTest() {
+		OrderGene<TestEnum> gene = new OrderGene<>("Gene", TestEnum.class, new SplittableRandom(12));
+		gene.getValue().clear();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooManyValuesTest() {
+		new OrderGene<>("Too Large", TooLargeEnum.class);
+	}
+
+	// The slice both slice crossovers draw first from their rand
+	private static int[] slice(SplittableRandom rand, int size) {
+		int start = rand.nextInt(size);
+		int end = rand.nextInt(size);
+		return new int[] { Math.min(start, end), Math.max(start, end) };
+	}
+
+	private <T extends Enum<T>> void assertPermutation(OrderGene<T> gene) {
+		List<T> values = gene.getValue();
+		T[] constants = values.get(0).getDeclaringClass().getEnumConstants();
+		assertEquals(constants.length, values.size());
+		assertEquals(EnumSet.allOf(values.get(0).getDeclaringClass()), EnumSet.copyOf(values));
+	}
+
 	private enum TestEnum {
 		STATE1, STATE2, STATE3
 	}
+
+	private enum SingleEnum {
+		ONLY
+	}
+
+	private enum LargeEnum {
+		V00, V01, V02, V03, V04, V05, V06, V07, V08, V09, V10, V11, V12, V13, V14, V15,
+		V16, V17, V18, V19, V20, V21, V22, V23, V24, V25, V26, V27, V28, V29, V30, V31,
+		V32, V33, V34, V35, V36, V37, V38, V39, V40, V41, V42, V43, V44, V45, V46, V47,
+		V48, V49, V50, V51, V52, V53, V54, V55, V56, V57, V58, V59, V60, V61, V62, V63
+	}
+
+	private enum TooLargeEnum {
+		V00, V01, V02, V03, V04, V05, V06, V07, V08, V09, V10, V11, V12, V13, V14, V15,
+		V16, V17, V18, V19, V20, V21, V22, V23, V24, V25, V26, V27, V28, V29, V30, V31,
+		V32, V33, V34, V35, V36, V37, V38, V39, V40, V41, V42, V43, V44, V45, V46, V47,
+		V48, V49, V50, V51, V52, V53, V54, V55, V56, V57, V58, V59, V60, V61, V62, V63, V64
+	}
 }
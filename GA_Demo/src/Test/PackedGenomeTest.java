@@ -0,0 +1,75 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import genes.PackedGenome;
+
+public class PackedGenomeTest {
+
+	@Test
+	public void fieldsTest() {
+		long genome = 0;
+		genome = PackedGenome.withPriority(genome, 0, 3);
+		genome = PackedGenome.withPriority(genome, 3, 1);
+		genome = PackedGenome.withReaction(genome, 2, 2);
+		genome = PackedGenome.withAggression(genome, true);
+		genome = PackedGenome.withHunger(genome, 15);
+
+		assertEquals(3, PackedGenome.getPriority(genome, 0));
+		assertEquals(1, PackedGenome.getPriority(genome, 3));
+		assertEquals(2, PackedGenome.getReaction(genome, 2));
+		assertEquals(0, PackedGenome.getReaction(genome, 3));
+		assertTrue(PackedGenome.isAggressive(genome));
+		assertEquals(15, PackedGenome.getHunger(genome));
+
+		genome = PackedGenome.withAggression(genome, false);
+		assertFalse(PackedGenome.isAggressive(genome));
+		assertEquals(15, PackedGenome.getHunger(genome));
+	}
+
+	@Test
+	public void offspringTest() {
+		SplittableRandom rand = new SplittableRandom(3);
+		for (int i = 0; i < 1000; i++) {
+			long parent1 = PackedGenome.random(15, rand);
+			long parent2 = PackedGenome.random(15, rand);
+			long child = PackedGenome.mutate(PackedGenome.crossover(parent1, parent2, rand), 0.5, rand);
+
+			assertPermutation(parent1);
+			assertPermutation(child);
+			for (int tile = 0; tile < PackedGenome.TILES; tile++) {
+				assertTrue(PackedGenome.getReaction(child, tile) < PackedGenome.ACTIONS);
+			}
+			assertTrue(PackedGenome.getHunger(child) <= PackedGenome.HUNGER_MAX);
+		}
+	}
+
+	@Test
+	public void crossoverTest() {
+		SplittableRandom rand = new SplittableRandom(5);
+		long parent1 = PackedGenome.withHunger(PackedGenome.random(15, rand), 4);
+		long parent2 = PackedGenome.withHunger(PackedGenome.random(15, rand), 11);
+		long child = PackedGenome.crossover(parent1, parent2, rand);
+
+		assertEquals(7, PackedGenome.getHunger(child));
+		long first = PackedGenome.getReaction(child, 0) == PackedGenome.getReaction(parent1, 0) ? parent1 : parent2;
+		long second = first == parent1 ? parent2 : parent1;
+		assertEquals(PackedGenome.getReaction(first, 1), PackedGenome.getReaction(child, 1));
+		assertEquals(PackedGenome.getReaction(second, 2), PackedGenome.getReaction(child, 2));
+		assertEquals(PackedGenome.getReaction(second, 3), PackedGenome.getReaction(child, 3));
+	}
+
+	private void assertPermutation(long genome) {
+		int used = 0;
+		for (int rank = 0; rank < PackedGenome.TILES; rank++) {
+			used |= 1 << PackedGenome.getPriority(genome, rank);
+		}
+		assertEquals((1 << PackedGenome.TILES) - 1, used);
+	}
+}
@@ -0,0 +1,54 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.PackedState;
+import map.TileMap;
+import map.TileType;
+
+public class PackedStateTest {
+
+	@Test
+	public void roundTripTest() {
+		SplittableRandom rand = new SplittableRandom(6);
+		TileMap map = new TileMap(16, rand);
+		map.reset();
+		for (int i = 0; i < 60; i++) {
+			map.setEmptyTile(rand.nextBoolean() ? TileType.FOOD : TileType.ENTITY);
+		}
+
+		byte[] packed = new byte[PackedState.BYTES];
+		float[] features = new float[PackedState.FEATURES];
+		for (int y = 0; y < 16; y++) {
+			for (int x = 0; x < 16; x++) {
+				int life = rand.nextInt(16);
+				PackedState.pack(map, x, y, life, packed, 0);
+				PackedState.unpack(packed, 0, features, 0);
+				assertArrayEquals(oneHot(map, x, y, life), features, 0);
+			}
+		}
+	}
+
+	// The encoding ReinforcementEntity built directly before states were packed
+	private float[] oneHot(TileMap map, int x, int y, int life) {
+		float[] state = new float[PackedState.FEATURES];
+		int feature = 0;
+		for (int viewY = y - PackedState.RANGE; viewY <= y + PackedState.RANGE; viewY++) {
+			for (int viewX = x - PackedState.RANGE; viewX <= x + PackedState.RANGE; viewX++) {
+				if (viewX == x && viewY == y) {
+					continue;
+				}
+				if (!map.outOfRange(viewX, viewY)) {
+					state[feature + map.getTile(viewX, viewY).ordinal()] = 1;
+				}
+				feature += TileType.values().length;
+			}
+		}
+		state[feature] = life;
+		return state;
+	}
+}
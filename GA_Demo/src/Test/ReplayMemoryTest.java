@@ -0,0 +1,84 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import entities.PackedState;
+import entities.ReplayMemory;
+import entities.ReplayMemory.Eviction;
+
+public class ReplayMemoryTest {
+
+	@Test
+	public void lazyGrowthTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		ReplayMemory memory = new ReplayMemory(5000, 2, Eviction.FIFO);
+		assertEquals(0, memory.getAllocatedSlots());
+
+		memory.store(state(1), new float[] { 4, 5 }, rand);
+		assertEquals(1, memory.size());
+		assertTrue(memory.getAllocatedSlots() < memory.getCapacity());
+
+		for (int i = 1; i < 6000; i++) {
+			memory.store(state(i), new float[] { i, i }, rand);
+		}
+		assertEquals(5000, memory.size());
+		assertEquals(5000, memory.getAllocatedSlots());
+		assertEquals(6000, memory.getStored());
+	}
+
+	@Test
+	public void fifoEvictionTest() {
+		SplittableRandom rand = new SplittableRandom(2);
+		ReplayMemory memory = new ReplayMemory(4, 1, Eviction.FIFO);
+		for (int i = 0; i < 6; i++) {
+			memory.store(state(i), new float[] { i }, rand);
+		}
+		byte[] state = new byte[PackedState.BYTES];
+		int[] expected = { 4, 5, 2, 3 };
+		for (int slot = 0; slot < 4; slot++) {
+			memory.getState(slot, state, 0);
+			assertEquals(expected[slot], state[0]);
+		}
+	}
+
+	@Test
+	public void reservoirSampleTest() {
+		SplittableRandom rand = new SplittableRandom(3);
+		ReplayMemory memory = new ReplayMemory(100, 1, Eviction.RESERVOIR);
+		for (int i = 0; i < 10000; i++) {
+			memory.store(state(i / 100), new float[] { i }, rand);
+		}
+		assertEquals(100, memory.size());
+
+		byte[] state = new byte[PackedState.BYTES];
+		int recent = 0;
+		for (int slot = 0; slot < 100; slot++) {
+			memory.getState(slot, state, 0);
+			if (state[0] >= 50) {
+				recent++;
+			}
+		}
+		assertEquals(50, recent, 20);
+
+		int[] slots = memory.sampleSlots(60, rand);
+		Set<Integer> distinct = new HashSet<>();
+		for (int slot : slots) {
+			assertTrue(slot >= 0 && slot < 100);
+			distinct.add(slot);
+		}
+		assertEquals(60, distinct.size());
+	}
+
+	private byte[] state(int marker) {
+		byte[] state = new byte[PackedState.BYTES];
+		state[0] = (byte) marker;
+		return state;
+	}
+}
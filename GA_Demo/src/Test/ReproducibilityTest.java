@@ -0,0 +1,96 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import entities.Entity;
+import map.ByteTileGrid;
+import map.SteadyStateVillage;
+import map.TileMap;
+import map.TileType;
+import random.RandomStreams;
+
+public class ReproducibilityTest {
+
+	private static final long SEED = 7;
+	private static final int TICKS = 1000;
+
+	@Test
+	public void sameSeedSameVillageTest() throws Exception {
+		long[] serial = runVillage(false, 1);
+		assertArrayEquals(serial, runVillage(false, 1));
+
+		// The parallel update has its own order of events, but it must not depend on the thread count
+		long[] parallel = runVillage(true, 1);
+		assertArrayEquals(parallel, runVillage(true, 1));
+		assertArrayEquals(parallel, runVillage(true, 4));
+	}
+
+	@Test
+	public void sameSeedSameMapTest() throws Exception {
+		long serial = runMap(false, 1);
+		assertEquals(serial, runMap(false, 1));
+
+		long parallel = runMap(true, 1);
+		assertEquals(parallel, runMap(true, 4));
+	}
+
+	// Runs a headless steady-state village from -seed, returning its ticks, generation, births and best fitness
+	private static long[] runVillage(boolean parallel, int threads) throws Exception {
+		return inPool(threads, () -> {
+			RandomStreams.setSeed(SEED);
+			SteadyStateVillage village = new SteadyStateVillage(100, new ByteTileGrid(40), 50, RandomStreams.split());
+			village.setParallel(parallel);
+			village.setUp();
+			for (int tick = 0; tick < TICKS; tick++) {
+				village.update();
+			}
+			return new long[] { village.getTicks(), village.getGeneration(), village.getBirths(),
+					village.getBestFitness() };
+		});
+	}
+
+	// Runs a map down to its last entity, returning a hash of every tick's tiles
+	private static long runMap(boolean parallel, int threads) throws Exception {
+		return inPool(threads, () -> {
+			SplittableRandom rand = new SplittableRandom(SEED);
+			TileMap map = new TileMap(60, rand.split());
+			map.reset();
+			map.setParallel(parallel);
+			for (int i = 0; i < 300; i++) {
+				map.spawn(new Entity(rand.split()));
+			}
+			for (int i = 0; i < 200; i++) {
+				map.setEmptyTile(TileType.FOOD);
+			}
+			byte[] tiles = new byte[60 * 60];
+			long hash = 0;
+			for (int tick = 0; tick < TICKS && !map.getEntities().isEmpty(); tick++) {
+				map.update();
+				if (tick % 5 == 0) {
+					map.setEmptyTile(TileType.FOOD);
+				}
+				map.copyTiles(tiles);
+				hash = hash * 31 + Arrays.hashCode(tiles);
+			}
+			return hash;
+		});
+	}
+
+	// Parallel streams started from inside a pool run on that pool
+	private static <T> T inPool(int threads, Callable<T> run) throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.submit(run).get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.joml.Vector2i;
+import org.junit.Test;
+
+import entities.Agent;
+import map.TileMap;
+import selection.RouletteSelection;
+import selection.TournamentSelection;
+import selection.TruncationSelection;
+
+public class SelectionTest {
+
+	@Test
+	public void truncationTest() {
+		SplittableRandom rand = new SplittableRandom(1);
+		List<ScoredAgent> candidates = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			candidates.add(new ScoredAgent(rand.nextInt(100)));
+		}
+		List<ScoredAgent> original = new ArrayList<>(candidates);
+
+		List<ScoredAgent> sorted = new ArrayList<>(candidates);
+		Collections.sort(sorted, (a, b) -> Integer.compare(b.getFitness(), a.getFitness()));
+		for (int count : new int[] { 1, 7, 250, 500, 600 }) {
+			List<ScoredAgent> fittest = new TruncationSelection<ScoredAgent>().select(candidates, count, rand);
+			assertEquals(Math.min(count, candidates.size()), fittest.size());
+			for (int i = 0; i < fittest.size(); i++) {
+				assertEquals(sorted.get(i).getFitness(), fittest.get(i).getFitness());
+			}
+		}
+		assertEquals(original, candidates);
+	}
+
+	@Test
+	public void truncationEqualFitnessTest() {
+		List<ScoredAgent> candidates = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			candidates.add(new ScoredAgent(7));
+		}
+
+		ScoredAgent.reads = 0;
+		List<ScoredAgent> fittest = new TruncationSelection<ScoredAgent>().select(candidates, 5000,
+				new SplittableRandom(4));
+		assertEquals(5000, fittest.size());
+		for (ScoredAgent agent : fittest) {
+			assertEquals(7, agent.getFitness());
+		}
+		// A two way partition peels off one candidate per pass here, which is tens of millions of reads
+		assertTrue(ScoredAgent.reads < 20 * candidates.size());
+	}
+
+	@Test
+	public void truncationAdversarialTest() {
+		int[] fitness = medianOfThreeKiller(10000);
+		List<ScoredAgent> candidates = new ArrayList<>();
+		int best = Integer.MIN_VALUE;
+		for (int value : fitness) {
+			candidates.add(new ScoredAgent(value));
+			best = Math.max(best, value);
+		}
+
+		ScoredAgent.reads = 0;
+		List<ScoredAgent> fittest = new TruncationSelection<ScoredAgent>().select(candidates, 1,
+				new SplittableRandom(5));
+		assertEquals(best, fittest.get(0).getFitness());
+		// A fixed median of three pivot narrows this input by two a pass, which is tens of millions of reads
+		assertTrue(ScoredAgent.reads < 20 * candidates.size());
+	}
+
+	@Test
+	public void rouletteTest() {
+		SplittableRandom rand = new SplittableRandom(2);
+		List<ScoredAgent> candidates = new ArrayList<>();
+		candidates.add(new ScoredAgent(0));
+		candidates.add(new ScoredAgent(30));
+		candidates.add(new ScoredAgent(0));
+		candidates.add(new ScoredAgent(10));
+
+		int fittest = 0;
+		for (ScoredAgent selected : new RouletteSelection<ScoredAgent>().select(candidates, 10000, rand)) {
+			assertNotEquals(0, selected.getFitness());
+			if (selected.getFitness() == 30) {
+				fittest++;
+			}
+		}
+		assertEquals(7500, fittest, 200);
+	}
+
+	@Test
+	public void tournamentTest() {
+		SplittableRandom rand = new SplittableRandom(3);
+		List<ScoredAgent> candidates = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			candidates.add(new ScoredAgent(i));
+		}
+		List<ScoredAgent> selected = new TournamentSelection<ScoredAgent>(1000).select(candidates, 5, rand);
+		assertEquals(5, selected.size());
+		for (ScoredAgent agent : selected) {
+			assertSame(candidates.get(9), agent);
+		}
+	}
+
+	// Replays a median of three quickselect for the single fittest and gives each pass's three samples the lowest
+	// fitness yet, so the pivot is always the second least fit of its range. Unsampled cells count as fitter
+	private static int[] medianOfThreeKiller(int size) {
+		int unset = Integer.MAX_VALUE;
+		int[] values = new int[size];
+		int[] cells = new int[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = unset;
+			cells[i] = i;
+		}
+		int next = 0;
+		int left = 0;
+		int right = size - 1;
+		while (left < right) {
+			int middle = (left + right) >>> 1;
+			for (int sample : new int[] { left, middle, right }) {
+				if (values[cells[sample]] == unset) {
+					values[cells[sample]] = next++;
+				}
+			}
+			int a = values[cells[left]];
+			int b = values[cells[middle]];
+			int c = values[cells[right]];
+			int pivot = (a >= b) == (b >= c) ? b : (b >= a) == (a >= c) ? a : c;
+			int fitter = left;
+			int lessFit = right;
+			int i = left;
+			while (i <= lessFit) {
+				int value = values[cells[i]];
+				if (value > pivot) {
+					swap(cells, fitter++, i++);
+				} else if (value < pivot) {
+					swap(cells, i, lessFit--);
+				} else {
+					i++;
+				}
+			}
+			if (fitter == left) {
+				break;
+			}
+			right = fitter - 1;
+		}
+		for (int i = 0; i < size; i++) {
+			if (values[i] == unset) {
+				values[i] = next++;
+			}
+		}
+		return values;
+	}
+
+	private static void swap(int[] cells, int i, int j) {
+		int cell = cells[i];
+		cells[i] = cells[j];
+		cells[j] = cell;
+	}
+
+	private static class ScoredAgent implements Agent {
+
+		private static long reads = 0;
+
+		private int fitness;
+
+		private ScoredAgent(int fitness) {
+			this.fitness = fitness;
+		}
+
+		@Override
+		public void decide(TileMap map) {
+		}
+
+		@Override
+		public void resolve(TileMap map) {
+		}
+
+		@Override
+		public Vector2i getPosition() {
+			return null;
+		}
+
+		@Override
+		public void setPosition(Vector2i position) {
+		}
+
+		@Override
+		public int getFitness() {
+			reads++;
+			return fitness;
+		}
+
+		@Override
+		public boolean isDead() {
+			return false;
+		}
+
+		@Override
+		public void kill() {
+		}
+
+		@Override
+		public void reset() {
+		}
+	}
+}
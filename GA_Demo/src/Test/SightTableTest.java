@@ -0,0 +1,70 @@
+package Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import entities.SightTable;
+
+public class SightTableTest {
+
+	@Test
+	public void raysMatchBresenhamTest() {
+		for (int range = 1; range <= 8; range++) {
+			SightTable table = SightTable.forRange(range);
+			for (int dy = -range; dy <= range; dy++) {
+				for (int dx = -range; dx <= range; dx++) {
+					List<int[]> line = getTilesOnLine(0, 0, dx, dy);
+					int[] expected = new int[line.size() - 1];
+					for (int i = 1; i < line.size(); i++) {
+						expected[i - 1] = table.offset(line.get(i)[0], line.get(i)[1]);
+					}
+					assertArrayEquals(expected, table.getRay(table.offset(dx, dy)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void tableIsSharedPerRangeTest() {
+		assertSame(SightTable.forRange(5), SightTable.forRange(5));
+	}
+
+	// Reference per-candidate Bresenham, as Entity computed it before the table
+	static List<int[]> getTilesOnLine(int x0, int y0, int x1, int y1) {
+		List<int[]> tiles = new ArrayList<>();
+
+		int dx = Math.abs(x1 - x0);
+		int dy = Math.abs(y1 - y0);
+
+		int sx = x0 < x1 ? 1 : -1;
+		int sy = y0 < y1 ? 1 : -1;
+
+		int err = dx - dy;
+		int e2;
+
+		while (true) {
+			tiles.add(new int[] { x0, y0 });
+
+			if (x0 == x1 && y0 == y1)
+				break;
+
+			e2 = 2 * err;
+			if (e2 > -dy) {
+				err = err - dy;
+				x0 = x0 + sx;
+			}
+
+			if (e2 < dx) {
+				err = err + dx;
+				y0 = y0 + sy;
+			}
+		}
+
+		return tiles;
+	}
+}
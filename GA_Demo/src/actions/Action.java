@@ -1,5 +1,11 @@
 package actions;
 
 public enum Action {
-	NOTHING, TOWARDS, AWAY
+	NOTHING, TOWARDS, AWAY;
+
+	private static final Action[] VALUES = values();
+
+	public static Action fromOrdinal(int ordinal) {
+		return VALUES[ordinal];
+	}
 }
@@ -14,4 +14,15 @@ public abstract class ActionHandler {
 			return new Vector2i(0, 0);
 		}
 	}
+
+	public static int useAction(Action action, int direction) {
+		switch (action) {
+		case TOWARDS:
+			return direction;
+		case AWAY:
+			return -direction;
+		default:
+			return 0;
+		}
+	}
 }
@@ -0,0 +1,36 @@
+package entities;
+
+import org.joml.Vector2i;
+
+import map.TileMap;
+
+public interface Agent {
+
+	// Chooses a move against the current map without modifying it, may run concurrently with other agents
+	void decide(TileMap map);
+
+	// Applies the chosen move to the map, always called serially in spawn order
+	void resolve(TileMap map);
+
+	// Reads the map after every agent has resolved, may run concurrently with other agents
+	default void observe(TileMap map) {
+	}
+
+	default void update(TileMap map) {
+		decide(map);
+		resolve(map);
+		observe(map);
+	}
+
+	Vector2i getPosition();
+
+	void setPosition(Vector2i position);
+
+	int getFitness();
+
+	boolean isDead();
+
+	void kill();
+
+	void reset();
+}
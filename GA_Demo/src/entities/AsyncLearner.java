@@ -0,0 +1,123 @@
+package entities;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.dataset.DataSet;
+
+import logging.Logger;
+
+// Trains a copy of a policy's network on its replay memories on a thread of its own,
+// publishing the parameters to the acting network every publishInterval fits
+public class AsyncLearner implements Runnable {
+
+	private static final long IDLE_MILLIS = 10;
+
+	private Policy policy;
+	private int batchSize;
+	private int publishInterval;
+	private SplittableRandom rand;
+	private MultiLayerNetwork training;
+	private Thread thread;
+	private volatile boolean running = false;
+	private volatile RuntimeException failure;
+
+	private AtomicLong samples = new AtomicLong();
+	private AtomicLong fits = new AtomicLong();
+	private long startTime;
+
+	public AsyncLearner(Policy policy, int batchSize, int publishInterval, SplittableRandom rand) {
+		this.policy = policy;
+		this.batchSize = batchSize;
+		this.publishInterval = publishInterval;
+		this.rand = rand;
+	}
+
+	public void start() {
+		training = policy.trainingCopy();
+		policy.setAsynchronous(true);
+		running = true;
+		startTime = System.nanoTime();
+		thread = new Thread(this, "Learner");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void stop() {
+		running = false;
+		if (thread == null) {
+			return;
+		}
+		thread.interrupt();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		policy.setAsynchronous(false);
+	}
+
+	@Override
+	public void run() {
+		int next = 0;
+		try {
+			while (running) {
+				ReplayMemory memory = nextMemory(next++);
+				if (memory == null) {
+					Thread.sleep(IDLE_MILLIS);
+					continue;
+				}
+				DataSet batch = memory.sample(batchSize, rand);
+				training.fit(batch.getFeatures(), batch.getLabels());
+				samples.addAndGet(batch.numExamples());
+				if (fits.incrementAndGet() % publishInterval == 0) {
+					policy.publish(training.params().dup(), fits.get());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			failure = e;
+			Logger.error(e);
+		} finally {
+			// Hands training back to the entities, so a failed learner does not silently stop learning
+			policy.setAsynchronous(false);
+		}
+	}
+
+	// Takes the memories in turn, skipping any without a full batch yet
+	private ReplayMemory nextMemory(int start) {
+		List<ReplayMemory> memories = policy.getMemories();
+		for (int i = 0; i < memories.size(); i++) {
+			ReplayMemory memory = memories.get(Math.floorMod(start + i, memories.size()));
+			if (memory.size() > batchSize) {
+				return memory;
+			}
+		}
+		return null;
+	}
+
+	public float getSamplesPerSecond() {
+		return samples.get() / Math.max((System.nanoTime() - startTime) / 1e9f, 1e-9f);
+	}
+
+	public long getFits() {
+		return fits.get();
+	}
+
+	// Fits the learner has made that the acting network has not picked up yet
+	public long getStaleness() {
+		return fits.get() - policy.getAppliedFits();
+	}
+
+	public void report() {
+		if (failure != null) {
+			Logger.warn("Learner failed after " + fits.get() + " fits, training fell back to the acting thread: "
+					+ failure);
+		}
+		Logger.info("Learner: " + fits.get() + " fits (" + getSamplesPerSecond() + " samples/sec), staleness "
+				+ getStaleness() + " fits");
+	}
+}
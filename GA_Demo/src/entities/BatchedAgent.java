@@ -0,0 +1,24 @@
+package entities;
+
+import map.TileMap;
+
+// An agent whose policy can be evaluated for many agents in one pass, before decide and before observe
+public interface BatchedAgent extends Agent {
+
+	Policy getPolicy();
+
+	// True when decide has no Q values carried over from the previous tick
+	boolean needsState();
+
+	// Writes the features of the state decide will act on
+	void writeState(TileMap map, float[] features, int offset);
+
+	void setQValues(float[] q, int offset);
+
+	// True when observe will need the Q values of the state after this tick's move
+	boolean needsNextState();
+
+	void writeNextState(TileMap map, float[] features, int offset);
+
+	void setNextQValues(float[] online, float[] target, int offset);
+}
@@ -1,11 +1,10 @@
 package entities;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.joml.Vector2i;
 
@@ -15,116 +14,145 @@ import genes.BooleanGene;
 import genes.IntegerGene;
 import genes.MapGene;
 import genes.OrderGene;
+import genes.PackedGenome;
 import logging.Logger;
 import logging.Logger.Category;
+import map.DistanceField;
 import map.TileMap;
 import map.TileType;
+import random.RandomStreams;
 
-public class Entity implements Comparable<Entity> {
+public class Entity implements Agent, Comparable<Entity> {
 
 	private static final int INITIAL_LIFE = 15;
 	private static final int FOOD_LIFE = 5;
-	private static final int VIEW_RANGE = 5;
+	public static final int VIEW_RANGE = 5;
+	private static final int VIEW_WIDTH = 2 * VIEW_RANGE + 1;
+	private static final int NOT_FOUND = -1;
+	private static final FieldOfView FOV = FieldOfView.forRange(VIEW_RANGE);
+	private static final SightTable SIGHT = FOV.getTable();
+	private static final ThreadLocal<ViewScratch> SCRATCH = ThreadLocal.withInitial(ViewScratch::new);
 	private static final float MUTATION_RATE = 0.05f;
 	private Vector2i position;
-	private OrderGene<TileType> priorityGene;
-	private MapGene<TileType, Action> reactionGene;
-	private BooleanGene aggressionGene;
-	private IntegerGene hungerGene;
+	private long genome;
 	private int fitness = 0;
 	private int life = INITIAL_LIFE;
 	private boolean dead = false;
+	private SplittableRandom rand;
+	private boolean moving = false;
+	private int moveX;
+	private int moveY;
 
 	public Entity() {
-		priorityGene = new OrderGene<>("Priority Gene", TileType.class);
-		reactionGene = new MapGene<>("Reaction Gene", TileType.class, Action.class);
-		aggressionGene = new BooleanGene("Aggression Gene");
-		hungerGene = new IntegerGene("Hunger Gene", INITIAL_LIFE);
+		this(RandomStreams.split());
+	}
+
+	public Entity(SplittableRandom rand) {
+		this(PackedGenome.random(INITIAL_LIFE, rand), rand);
+	}
+
+	public Entity(long genome, SplittableRandom rand) {
+		this.genome = genome;
+		this.rand = rand;
 	}
 
 	public Entity(Entity entity) {
-		priorityGene = new OrderGene<>(entity.getPriorityChromosome());
-		reactionGene = new MapGene<>(entity.getReactionsChromosome());
-		aggressionGene = new BooleanGene(entity.getAggressionGene());
-		hungerGene = new IntegerGene(entity.getHungerGene());
+		rand = entity.rand.split();
+		genome = entity.genome;
 		fitness = entity.getFitness();
 	}
 
 	public Entity(Entity parent1, Entity parent2) {
-		priorityGene = new OrderGene<>(parent1.getPriorityChromosome(), parent2.getPriorityChromosome());
-		reactionGene = new MapGene<>(parent1.getReactionsChromosome(), parent2.getReactionsChromosome());
-		aggressionGene = new BooleanGene(parent1.getAggressionGene(), parent2.getAggressionGene());
-		hungerGene = new IntegerGene(parent1.getHungerGene(), parent2.getHungerGene());
-		mutate();
+		this(parent1, parent2, RandomStreams.split());
 	}
 
-	public void update(TileMap map) {
+	public Entity(Entity parent1, Entity parent2, SplittableRandom rand) {
+		this.rand = rand;
+		genome = PackedGenome.mutate(PackedGenome.crossover(parent1.genome, parent2.genome, rand), MUTATION_RATE,
+				rand);
+	}
+
+	@Override
+	public void decide(TileMap map) {
 
+		moving = false;
 		life--;
 		fitness++;
 
-		TileType currentTile;
-		Map<TileType, List<Vector2i>> tilePositions = new EnumMap<>(TileType.class);
-		for (TileType type : TileType.values()) {
-			tilePositions.put(type, new ArrayList<Vector2i>());
+		ViewScratch scratch = SCRATCH.get();
+		int[] counts = scratch.counts;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
 		}
 
-		for (int viewY = position.y() - VIEW_RANGE; viewY <= position.y() + VIEW_RANGE; viewY++) {
-			for (int viewX = position.x() - VIEW_RANGE; viewX <= position.x() + VIEW_RANGE; viewX++) {
-				if ((!(viewX == position.x() && viewY == position.y())) && !map.outOfRange(viewX, viewY)) {
-					currentTile = map.getTile(viewX, viewY);
-					List<Vector2i> tileList = tilePositions.get(currentTile);
-					tileList.add(new Vector2i(viewX, viewY));
-				}
-			}
-		}
+		int x = position.x();
+		int y = position.y();
+		boolean viewComputed = false;
 
-		Vector2i reactPosition = new Vector2i(0, 0);
-		boolean found = false;
+		int step = NOT_FOUND;
 		TileType reactTile = null;
 
-		List<TileType> priorities = priorityGene.getValue();
-		for (int i = 0; i < priorities.size(); i++) {
-			reactTile = priorities.get(i);
-			if ((reactTile == TileType.FOOD) && life > hungerGene.getValue()) {
+		for (int i = 0; i < PackedGenome.TILES; i++) {
+			reactTile = TileType.fromOrdinal(PackedGenome.getPriority(genome, i));
+			if ((reactTile == TileType.FOOD) && life > PackedGenome.getHunger(genome)) {
 				continue;
 			}
-			List<Vector2i> priorityPositions = tilePositions.get(reactTile);
-			Collections.shuffle(priorityPositions);
-			for (Vector2i priorityPosition : priorityPositions) {
-				Logger.debug("Checking Position: " + priorityPosition, Category.ENTITIES);
-				reactPosition = inSight(map, priorityPosition);
-				if (reactPosition != null) {
-					found = true;
+			DistanceField field = map.getDistanceField(reactTile);
+			if (field != null) {
+				int cell = field.firstStep(x, y, y * map.getSize() + x);
+				if (cell != DistanceField.NONE) {
+					step = SIGHT.offset(cell % map.getSize() - x, cell / map.getSize() - y);
 					break;
 				}
+				continue;
+			}
+			if (!viewComputed) {
+				FOV.compute(map, x, y, scratch.clear, scratch.open, scratch.candidates, counts);
+				viewComputed = true;
 			}
-			if (found) {
+			int count = counts[reactTile.ordinal()];
+			if (count > 0) {
+				step = FOV.getFirstStep(scratch.candidates[reactTile.ordinal()][rand.nextInt(count)]);
 				break;
 			}
 		}
 
-		if (reactPosition == null) {
+		if (step == NOT_FOUND) {
 			return;
 		}
 
-		Logger.debug("Found Tile: " + found, Category.ENTITIES);
-		Logger.debug("PriorityTile: " + reactTile.toString(), Category.ENTITIES);
-
-		Action action = reactionGene.getSmallValue(reactTile);
-		Logger.debug("Reaction: " + action.toString(), Category.ENTITIES);
-		Logger.debug("React Position: " + reactPosition, Category.ENTITIES);
-		Logger.debug("Current Position: " + position, Category.ENTITIES);
+		Action action = Action.fromOrdinal(PackedGenome.getReaction(genome, reactTile.ordinal()));
+		int directionX = SIGHT.offsetX(step);
+		int directionY = SIGHT.offsetY(step);
+		if (Logger.isDebugEnabled(Category.ENTITIES)) {
+			Logger.debug("PriorityTile: " + reactTile.toString(), Category.ENTITIES);
+			Logger.debug("Reaction: " + action.toString(), Category.ENTITIES);
+			Logger.debug("Current Position: " + position, Category.ENTITIES);
+			Logger.debug("Tile Direction: " + directionX + ", " + directionY, Category.ENTITIES);
+		}
 
-		Vector2i tileDirection = new Vector2i(reactPosition.x() - position.x(), reactPosition.y() - position.y());
-		Logger.debug("Tile Direction: " + tileDirection, Category.ENTITIES);
+		moveX = x + ActionHandler.useAction(action, directionX);
+		moveY = y + ActionHandler.useAction(action, directionY);
+		moving = true;
+	}
 
-		Vector2i movementVector = ActionHandler.useAction(action, tileDirection);
-		Logger.debug("Movement Direction: " + movementVector, Category.ENTITIES);
+	@Override
+	public void resolve(TileMap map) {
+		if (moving) {
+			moving = false;
+			move(map);
+		}
 
-		Vector2i movementPosition = new Vector2i(position.x() + movementVector.x(), position.y() + movementVector.y());
+		if (life <= 0) {
+			dead = true;
+			if (Logger.isDebugEnabled(Category.ENTITIES)) {
+				Logger.debug(this + " Died", Category.ENTITIES);
+			}
+		}
+	}
 
-		TileType moveTile = map.getTile(movementPosition.x(), movementPosition.y());
+	private void move(TileMap map) {
+		TileType moveTile = map.getTile(moveX, moveY);
 
 		if (moveTile == TileType.FOOD) {
 			life += FOOD_LIFE;
@@ -133,128 +161,84 @@ public class Entity implements Comparable<Entity> {
 			}
 		}
 
-		if (moveTile == TileType.ENTITY && aggressionGene.getValue()) {
-			map.killEntity(movementPosition);
+		if (moveTile == TileType.ENTITY && PackedGenome.isAggressive(genome)) {
+			map.killEntity(moveX, moveY);
 		} else {
 
 			if (moveTile == TileType.EMPTY || moveTile == TileType.FOOD) {
-				map.setTile(position.x(), position.y(), TileType.EMPTY);
-				position.setComponent(0, movementPosition.x());
-				position.setComponent(1, movementPosition.y());
-				map.setTile(position.x(), position.y(), TileType.ENTITY);
-				Logger.debug(this.toString() + " position: " + position.toString(), Category.ENTITIES);
-			}
-		}
-
-		if (life <= 0) {
-			dead = true;
-			Logger.debug(this + " Died", Category.ENTITIES);
-		}
-	}
-
-	private Vector2i inSight(TileMap map, Vector2i tilePosition) {
-		List<Vector2i> viewTiles = getTilesOnLine(position, tilePosition);
-		for (Vector2i tile : viewTiles) {
-			Logger.debug("Line of Sight Position: x: " + tile.x() + ", y: " + tile.y(), Category.ENTITIES);
-			TileType tileType = map.getTile(tile.x(), tile.y());
-			if (!(tile.x() == position.x() && tile.y() == position.y())
-					&& (tileType == TileType.WALL || tileType == TileType.ENTITY)) {
-				Logger.debug("Tile Blocked", Category.ENTITIES);
-				return null;
-			}
-		}
-		return viewTiles.get(1);
-	}
-
-	private static List<Vector2i> getTilesOnLine(Vector2i start, Vector2i goal) {
-		List<Vector2i> tiles = new ArrayList<>();
-		int x0 = start.x();
-		int y0 = start.y();
-		int x1 = goal.x();
-		int y1 = goal.y();
-
-		int dx = Math.abs(x1 - x0);
-		int dy = Math.abs(y1 - y0);
-
-		int sx = x0 < x1 ? 1 : -1;
-		int sy = y0 < y1 ? 1 : -1;
-
-		int err = dx - dy;
-		int e2;
-
-		while (true) {
-			tiles.add(new Vector2i(x0, y0));
-
-			if (x0 == x1 && y0 == y1)
-				break;
-
-			e2 = 2 * err;
-			if (e2 > -dy) {
-				err = err - dy;
-				x0 = x0 + sx;
-			}
-
-			if (e2 < dx) {
-				err = err + dx;
-				y0 = y0 + sy;
+				map.moveEntity(position, moveX, moveY);
+				position.setComponent(0, moveX);
+				position.setComponent(1, moveY);
+				if (Logger.isDebugEnabled(Category.ENTITIES)) {
+					Logger.debug(this.toString() + " position: " + position.toString(), Category.ENTITIES);
+				}
 			}
 		}
-
-		return tiles;
-	}
-
-	private void mutate() {
-		Random random = new Random();
-
-		if (random.nextFloat() <= MUTATION_RATE)
-			priorityGene.mutate();
-		if (random.nextFloat() <= MUTATION_RATE)
-			reactionGene.mutate();
-		if (random.nextFloat() <= MUTATION_RATE)
-			aggressionGene.mutate();
-		if (random.nextFloat() <= MUTATION_RATE)
-			hungerGene.mutate();
 	}
 
+	@Override
 	public void reset() {
 		life = INITIAL_LIFE;
 		fitness = 0;
 		dead = false;
 	}
 
+	@Override
 	public void setPosition(Vector2i position) {
 		this.position = position;
 		Logger.debug(this.toString() + " position: " + position.toString(), Category.ENTITIES);
 	}
 
+	@Override
 	public Vector2i getPosition() {
 		return position;
 	}
 
+	@Override
 	public int getFitness() {
 		return fitness;
 	}
 
+	@Override
 	public boolean isDead() {
 		return dead;
 	}
 
+	public long getGenome() {
+		return genome;
+	}
+
+	// The gene getters decode the packed genome into detached copies, changes to them are not written back.
+	// They seed from the genome rather than split rand, so inspecting an entity never changes how it behaves
 	public OrderGene<TileType> getPriorityChromosome() {
-		return priorityGene;
+		List<TileType> priorities = new ArrayList<>();
+		for (int i = 0; i < PackedGenome.TILES; i++) {
+			priorities.add(TileType.fromOrdinal(PackedGenome.getPriority(genome, i)));
+		}
+		return new OrderGene<>("Priority Gene", priorities, viewRandom());
 	}
 
 	public MapGene<TileType, Action> getReactionsChromosome() {
-		return reactionGene;
+		Map<TileType, Action> reactions = new EnumMap<>(TileType.class);
+		for (int i = 0; i < PackedGenome.TILES; i++) {
+			reactions.put(TileType.fromOrdinal(i), Action.fromOrdinal(PackedGenome.getReaction(genome, i)));
+		}
+		return new MapGene<>("Reaction Gene", TileType.class, Action.class, reactions, viewRandom());
 	}
 
 	public BooleanGene getAggressionGene() {
-		return aggressionGene;
+		return new BooleanGene("Aggression Gene", PackedGenome.isAggressive(genome), viewRandom());
 	}
 
 	public IntegerGene getHungerGene() {
-		return hungerGene;
+		return new IntegerGene("Hunger Gene", INITIAL_LIFE, PackedGenome.getHunger(genome), viewRandom());
+	}
+
+	private SplittableRandom viewRandom() {
+		return new SplittableRandom(genome);
 	}
 
+	@Override
 	public void kill() {
 		dead = true;
 	}
@@ -272,9 +256,16 @@ public class Entity implements Comparable<Entity> {
 
 	public void printStats() {
 		Logger.info("Fitness: " + fitness);
-		Logger.info(priorityGene.toString());
-		Logger.info(reactionGene.toString());
-		Logger.info(aggressionGene.toString());
-		Logger.info(hungerGene.toString());
+		Logger.info(getPriorityChromosome().toString());
+		Logger.info(getReactionsChromosome().toString());
+		Logger.info(getAggressionGene().toString());
+		Logger.info(getHungerGene().toString());
+	}
+
+	private static class ViewScratch {
+		private final int[][] candidates = new int[TileType.values().length][VIEW_WIDTH * VIEW_WIDTH];
+		private final int[] counts = new int[TileType.values().length];
+		private final boolean[] clear = new boolean[VIEW_WIDTH * VIEW_WIDTH];
+		private final boolean[] open = new boolean[VIEW_WIDTH * VIEW_WIDTH];
 	}
 }
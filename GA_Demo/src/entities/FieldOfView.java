@@ -0,0 +1,102 @@
+package entities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import map.TileMap;
+import map.TileType;
+
+public class FieldOfView {
+
+	private static final int ORIGIN = -1;
+	private static final int[] NO_TAIL = new int[0];
+	private static final Map<Integer, FieldOfView> VIEWS = new ConcurrentHashMap<>();
+
+	private final SightTable table;
+	// Window offsets ordered ring by ring outwards from the origin
+	private final int[] order;
+	private final int[] orderX;
+	private final int[] orderY;
+	// Furthest cell on each offset's ray whose own ray is the same path, so its visibility can be reused
+	private final int[] predecessor;
+	// Ray cells after the predecessor, Bresenham rays are not always their nearer cells' rays plus one step
+	private final int[][] tail;
+
+	private FieldOfView(int range) {
+		table = SightTable.forRange(range);
+		int width = table.getWidth();
+		order = new int[width * width - 1];
+		orderX = new int[order.length];
+		orderY = new int[order.length];
+		predecessor = new int[width * width];
+		tail = new int[width * width][];
+
+		int count = 0;
+		for (int distance = 1; distance <= range; distance++) {
+			for (int dy = -distance; dy <= distance; dy++) {
+				for (int dx = -distance; dx <= distance; dx++) {
+					if (Math.max(Math.abs(dx), Math.abs(dy)) != distance) {
+						continue;
+					}
+					int offset = table.offset(dx, dy);
+					link(offset, table.getRay(offset));
+					order[count] = offset;
+					orderX[count] = dx;
+					orderY[count] = dy;
+					count++;
+				}
+			}
+		}
+	}
+
+	// Every ray starts with an adjacent cell, whose ray is itself, so some prefix always qualifies
+	private void link(int offset, int[] ray) {
+		int between = ray.length - 1;
+		int prefix = between;
+		while (prefix > 0 && !Arrays.equals(table.getRay(ray[prefix - 1]), Arrays.copyOf(ray, prefix))) {
+			prefix--;
+		}
+		predecessor[offset] = prefix == 0 ? ORIGIN : ray[prefix - 1];
+		tail[offset] = prefix == between ? NO_TAIL : Arrays.copyOfRange(ray, prefix, between);
+	}
+
+	public static FieldOfView forRange(int range) {
+		return VIEWS.computeIfAbsent(range, FieldOfView::new);
+	}
+
+	// Sorts every clear cell around (x, y) into cells[type]. As with the old line walk, walls and entities block the
+	// cells behind them and are never targets themselves. clear marks cells that are visible and see through, open
+	// cells that see through
+	public void compute(TileMap map, int x, int y, boolean[] clear, boolean[] open, int[][] cells, int[] counts) {
+		for (int i = 0; i < order.length; i++) {
+			int offset = order[i];
+			int viewX = x + orderX[i];
+			int viewY = y + orderY[i];
+			if (map.outOfRange(viewX, viewY)) {
+				open[offset] = false;
+				clear[offset] = false;
+				continue;
+			}
+			TileType type = map.getTile(viewX, viewY);
+			open[offset] = type != TileType.WALL && type != TileType.ENTITY;
+			int previous = predecessor[offset];
+			boolean visible = previous == ORIGIN || clear[previous];
+			for (int cell : tail[offset]) {
+				visible &= open[cell];
+			}
+			clear[offset] = visible && open[offset];
+			if (clear[offset]) {
+				cells[type.ordinal()][counts[type.ordinal()]++] = offset;
+			}
+		}
+	}
+
+	public int getFirstStep(int offset) {
+		return table.getFirstStep(offset);
+	}
+
+	public SightTable getTable() {
+		return table;
+	}
+}
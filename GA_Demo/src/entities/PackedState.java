@@ -0,0 +1,81 @@
+package entities;
+
+import map.TileMap;
+import map.TileType;
+
+// A ReinforcementEntity view packed as a 2 bit tile ordinal per cell, the in-map clip rectangle and life.
+// Expands to the network's one-hot features, where cells outside the map are all zero
+public final class PackedState {
+
+	public static final int RANGE = 5;
+	public static final int WIDTH = 2 * RANGE + 1;
+	public static final int CELLS = WIDTH * WIDTH - 1;
+	public static final int TILE_TYPES = TileType.values().length;
+	public static final int FEATURES = CELLS * TILE_TYPES + 1;
+	private static final int CLIP_X = (CELLS + 3) / 4;
+	private static final int CLIP_Y = CLIP_X + 1;
+	private static final int LIFE = CLIP_Y + 1;
+	public static final int BYTES = LIFE + 1;
+
+	private PackedState() {
+	}
+
+	public static void pack(TileMap map, int x, int y, int life, byte[] dest, int offset) {
+		int minX = WIDTH;
+		int maxX = -1;
+		int minY = WIDTH;
+		int maxY = -1;
+		for (int i = 0; i < BYTES; i++) {
+			dest[offset + i] = 0;
+		}
+
+		int cell = 0;
+		for (int viewY = 0; viewY < WIDTH; viewY++) {
+			for (int viewX = 0; viewX < WIDTH; viewX++) {
+				if (viewX == RANGE && viewY == RANGE) {
+					continue;
+				}
+				int mapX = x - RANGE + viewX;
+				int mapY = y - RANGE + viewY;
+				if (!map.outOfRange(mapX, mapY)) {
+					dest[offset + (cell >> 2)] |= map.getTile(mapX, mapY).ordinal() << ((cell & 3) * 2);
+					minX = Math.min(minX, viewX);
+					maxX = Math.max(maxX, viewX);
+					minY = Math.min(minY, viewY);
+					maxY = Math.max(maxY, viewY);
+				}
+				cell++;
+			}
+		}
+
+		dest[offset + CLIP_X] = (byte) (minX | (maxX << 4));
+		dest[offset + CLIP_Y] = (byte) (minY | (maxY << 4));
+		dest[offset + LIFE] = (byte) Math.max(0, Math.min(life, 255));
+	}
+
+	public static void unpack(byte[] src, int offset, float[] dest, int destOffset) {
+		int minX = src[offset + CLIP_X] & 0xF;
+		int maxX = (src[offset + CLIP_X] >> 4) & 0xF;
+		int minY = src[offset + CLIP_Y] & 0xF;
+		int maxY = (src[offset + CLIP_Y] >> 4) & 0xF;
+
+		int cell = 0;
+		int feature = destOffset;
+		for (int viewY = 0; viewY < WIDTH; viewY++) {
+			for (int viewX = 0; viewX < WIDTH; viewX++) {
+				if (viewX == RANGE && viewY == RANGE) {
+					continue;
+				}
+				for (int i = 0; i < TILE_TYPES; i++) {
+					dest[feature + i] = 0;
+				}
+				if (viewX >= minX && viewX <= maxX && viewY >= minY && viewY <= maxY) {
+					dest[feature + ((src[offset + (cell >> 2)] >> ((cell & 3) * 2)) & 3)] = 1;
+				}
+				feature += TILE_TYPES;
+				cell++;
+			}
+		}
+		dest[feature] = src[offset + LIFE] & 0xFF;
+	}
+}
@@ -0,0 +1,165 @@
+package entities;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+// The Q network of one or more ReinforcementEntities, evaluated a whole batch of states at a time.
+// A target copy of the network, synced every few fits, values next states (double DQN)
+public class Policy {
+
+	public static final int ACTIONS = 8;
+	private static final float LEARNING_RATE = 0.04f;
+	private static final int DEFAULT_TARGET_SYNC = 10;
+
+	private MultiLayerNetwork net;
+	private MultiLayerNetwork target;
+	private int targetSyncInterval;
+	private int fits = 0;
+
+	// Replay memories of the entities acting with this policy, for an AsyncLearner to train on
+	private List<ReplayMemory> memories = new CopyOnWriteArrayList<>();
+	private volatile boolean asynchronous = false;
+	private AtomicReference<Snapshot> published = new AtomicReference<>();
+	private long appliedFits = 0;
+
+	public Policy() {
+		this(DEFAULT_TARGET_SYNC);
+	}
+
+	public Policy(int targetSyncInterval) {
+		this.targetSyncInterval = targetSyncInterval;
+		MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(42).iterations(1)
+				.weightInit(WeightInit.XAVIER).learningRate(LEARNING_RATE)
+				.optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).list()
+				.layer(0,
+						new DenseLayer.Builder().nIn(PackedState.FEATURES).nOut(512).activation(Activation.RELU)
+								.build())
+				.layer(1, new DenseLayer.Builder().nIn(512).nOut(128).activation(Activation.RELU).build())
+				.layer(2, new DenseLayer.Builder().nIn(128).nOut(32).activation(Activation.RELU).build())
+				.layer(3, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).activation(Activation.IDENTITY)
+						.nIn(32).nOut(ACTIONS).build())
+				.backprop(true).pretrain(false).build();
+		net = new MultiLayerNetwork(conf);
+		net.init();
+		target = net.clone();
+	}
+
+	public Policy(Policy policy) {
+		targetSyncInterval = policy.targetSyncInterval;
+		net = policy.net.clone();
+		target = policy.target.clone();
+	}
+
+	// Parameters published by the learner are picked up by the next pass
+	private void applyPublished() {
+		Snapshot snapshot = published.getAndSet(null);
+		if (snapshot == null) {
+			return;
+		}
+		net.setParams(snapshot.params);
+		appliedFits = snapshot.fits;
+		fits++;
+		if (fits % targetSyncInterval == 0) {
+			syncTarget();
+		}
+	}
+
+	// Writes the Q values of the first rows states, PackedState.FEATURES floats each, to dest as ACTIONS floats per
+	// state. Both arrays may be longer than rows need, so callers can reuse them
+	public synchronized void output(float[] features, int rows, float[] dest) {
+		applyPublished();
+		copyRows(net.output(states(features, rows)), rows, dest);
+	}
+
+	// Writes both the online and the target network's Q values, from one copy of the states
+	public synchronized void evaluate(float[] features, int rows, float[] online, float[] targetDest) {
+		applyPublished();
+		INDArray states = states(features, rows);
+		copyRows(net.output(states), rows, online);
+		copyRows(target.output(states), rows, targetDest);
+	}
+
+	private static INDArray states(float[] features, int rows) {
+		int capacity = features.length / PackedState.FEATURES;
+		INDArray states = Nd4j.create(features, new int[] { capacity, PackedState.FEATURES });
+		if (capacity == rows) {
+			return states;
+		}
+		return states.get(NDArrayIndex.interval(0, rows), NDArrayIndex.all());
+	}
+
+	private static void copyRows(INDArray output, int rows, float[] dest) {
+		for (int row = 0; row < rows; row++) {
+			for (int action = 0; action < ACTIONS; action++) {
+				dest[row * ACTIONS + action] = output.getFloat(row, action);
+			}
+		}
+	}
+
+	public synchronized void fit(DataSet data) {
+		net.fit(data.getFeatures(), data.getLabels());
+		fits++;
+		if (fits % targetSyncInterval == 0) {
+			syncTarget();
+		}
+	}
+
+	public synchronized void syncTarget() {
+		target.setParams(net.params().dup());
+	}
+
+	public synchronized MultiLayerNetwork trainingCopy() {
+		return net.clone();
+	}
+
+	public void publish(INDArray params, long learnerFits) {
+		published.set(new Snapshot(params, learnerFits));
+	}
+
+	public void addMemory(ReplayMemory memory) {
+		memories.add(memory);
+	}
+
+	public List<ReplayMemory> getMemories() {
+		return memories;
+	}
+
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
+	// Learner fits behind the parameters currently acting
+	public synchronized long getAppliedFits() {
+		return appliedFits;
+	}
+
+	private static final class Snapshot {
+
+		private final INDArray params;
+		private final long fits;
+
+		private Snapshot(INDArray params, long fits) {
+			this.params = params;
+			this.fits = fits;
+		}
+	}
+}
@@ -1,85 +1,96 @@
 package entities;
 
-import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
-
-import org.deeplearning4j.nn.api.OptimizationAlgorithm;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
-import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
-import org.deeplearning4j.nn.conf.Updater;
-import org.deeplearning4j.nn.conf.layers.OutputLayer;
-import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
-import org.deeplearning4j.nn.conf.layers.DenseLayer;
-import org.deeplearning4j.nn.weights.WeightInit;
+import java.util.SplittableRandom;
+
 import org.joml.Vector2i;
-import org.nd4j.linalg.activations.Activation;
-import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.NDArrayIndex;
-import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import actions.Action;
 import logging.Logger;
 import logging.Logger.Category;
 import map.TileMap;
 import map.TileType;
+import random.RandomStreams;
 
-public class ReinforcementEntity implements Comparable<ReinforcementEntity> {
+public class ReinforcementEntity implements BatchedAgent, Comparable<ReinforcementEntity> {
 
 	private static final int INITIAL_LIFE = 15;
 	private static final int FOOD_LIFE = 5;
-	private static final int VIEW_RANGE = 5;
 	private static final int BATCH_SIZE = 2048;
-	private static final int MAX_MEMORIES = 1000000;
-	private static final int FEATURES = ((((2 * VIEW_RANGE + 1) * (2 * VIEW_RANGE + 1) - 1) * 4) + 1);
+	private static final int MAX_MEMORIES = 100000;
+	private static final int FEATURES = PackedState.FEATURES;
 	private Vector2i position;
 	private int fitness = 0;
 	private int life = INITIAL_LIFE;
 	private boolean dead = false;
-	private float alpha = 0.04f;
 	private float discount = 0.9f;
 	private float exploration = 1;
 	private float eDecay = 0.0001f;
-	private Random rand = new Random();
-	private INDArray states;
-	private INDArray outputs;
-	private int memories = 0;
-	MultiLayerNetwork net;
+	private SplittableRandom rand;
+	private ReplayMemory memory;
+	private byte[] packedState = new byte[PackedState.BYTES];
+	private byte[] packedNextState = new byte[PackedState.BYTES];
+	private float[] features = new float[FEATURES];
+	private float[] q = new float[Policy.ACTIONS];
+	private float[] nextQ = new float[Policy.ACTIONS];
+	private float[] nextTargetQ = new float[Policy.ACTIONS];
+	private boolean qReady = false;
+	private boolean nextQReady = false;
+	private int action;
+	private Vector2i movePos = new Vector2i();
+	private float reward;
+	private boolean acted = false;
+	private Policy policy;
 
 	public ReinforcementEntity() {
-		MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(42).iterations(1)
-				.weightInit(WeightInit.XAVIER).learningRate(alpha)
-				.optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).list()
-				.layer(0,
-						new DenseLayer.Builder().nIn((((2 * VIEW_RANGE + 1) * (2 * VIEW_RANGE + 1) - 1) * 4) + 1)
-								.nOut(512).activation(Activation.RELU).build())
-				.layer(1, new DenseLayer.Builder().nIn(512).nOut(128).activation(Activation.RELU).build())
-				.layer(2, new DenseLayer.Builder().nIn(128).nOut(32).activation(Activation.RELU).build())
-				.layer(3, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).activation(Activation.IDENTITY)
-						.nIn(32).nOut(8).build())
-				.backprop(true).pretrain(false).build();
-		net = new MultiLayerNetwork(conf);
-		net.init();
-		states = Nd4j.create(MAX_MEMORIES, FEATURES);
-		outputs = Nd4j.create(MAX_MEMORIES, 8);
-	}
-
-	public void update(TileMap map) {
-
-		INDArray state = generateState(map);
-		int action;
-		if (rand.nextFloat() > exploration) {
-			action = net.predict(state)[0];
+		this(RandomStreams.split());
+	}
+
+	public ReinforcementEntity(SplittableRandom rand) {
+		this(rand, new Policy());
+	}
+
+	public ReinforcementEntity(SplittableRandom rand, Policy policy) {
+		this(rand, policy, MAX_MEMORIES, ReplayMemory.Eviction.FIFO);
+	}
+
+	public ReinforcementEntity(SplittableRandom rand, Policy policy, int memoryCapacity,
+			ReplayMemory.Eviction eviction) {
+		this.rand = rand;
+		this.policy = policy;
+		memory = new ReplayMemory(memoryCapacity, Policy.ACTIONS, eviction);
+		policy.addMemory(memory);
+	}
+
+	public ReinforcementEntity(ReinforcementEntity entity) {
+		rand = entity.rand.split();
+		policy = new Policy(entity.policy);
+		exploration = entity.exploration;
+		fitness = entity.fitness;
+		memory = new ReplayMemory(entity.memory.getCapacity(), Policy.ACTIONS, entity.memory.getEviction());
+		policy.addMemory(memory);
+	}
+
+	@Override
+	public void decide(TileMap map) {
+
+		// Q values are carried over from last tick's observe, or come from the map's batched pass,
+		// otherwise from a pass of our own
+		if (!qReady) {
+			writeState(map, features, 0);
+			policy.output(features, 1, q);
+		}
+		qReady = false;
+		if (rand.nextDouble() > exploration) {
+			action = bestAction(q);
 		} else {
-			action = rand.nextInt(8);
+			action = rand.nextInt(Policy.ACTIONS);
 		}
 		exploration -= eDecay;
 
-		Vector2i movePos = new Vector2i(position.x, position.y);
+		movePos.set(position.x, position.y);
 		switch (action) {
 		case 0:
 			movePos.add(-1, 1);
@@ -106,8 +117,12 @@ public class ReinforcementEntity implements Comparable<ReinforcementEntity> {
 			movePos.add(1, -1);
 			break;
 		}
+	}
+
+	@Override
+	public void resolve(TileMap map) {
 		TileType moveTile = map.getTile(movePos.x(), movePos.y());
-		float reward = 0;
+		reward = 0;
 		if (moveTile == TileType.FOOD) {
 			life += FOOD_LIFE;
 			if (life > INITIAL_LIFE) {
@@ -116,97 +131,145 @@ public class ReinforcementEntity implements Comparable<ReinforcementEntity> {
 			reward = 1;
 		}
 		if (moveTile == TileType.EMPTY || moveTile == TileType.FOOD) {
-			map.setTile(position.x(), position.y(), TileType.EMPTY);
+			map.moveEntity(position, movePos.x(), movePos.y());
 			position.setComponent(0, movePos.x());
 			position.setComponent(1, movePos.y());
-			map.setTile(position.x(), position.y(), TileType.ENTITY);
 			Logger.debug(this.toString() + " position: " + position.toString(), Category.ENTITIES);
 		}
 
 		life--;
 		fitness++;
 
-		float target;
-
 		if (life <= 0) {
 			dead = true;
 			Logger.debug(this + " Died", Category.ENTITIES);
+		}
+		acted = true;
+	}
+
+	@Override
+	public void observe(TileMap map) {
+		if (!acted) {
+			return;
+		}
+		acted = false;
+
+		float target;
+
+		if (dead) {
 			target = reward;
 		} else {
-			INDArray newState = generateState(map);
-			int newAction = net.predict(newState)[0];
-			target = reward + discount * net.output(newState).getFloat(newAction);
-
+			if (!nextQReady) {
+				writeNextState(map, features, 0);
+				policy.evaluate(features, 1, nextQ, nextTargetQ);
+			}
+			// Double DQN, the online network picks the next action and the target network values it
+			target = reward + discount * nextTargetQ[bestAction(nextQ)];
 		}
-		INDArray targetArr = net.output(state).putScalar(action, target);
-		storeMemory(state, targetArr);
+		nextQReady = false;
 
-	}
+		// The policy has not been fitted since decide, so q still holds the outputs for the acted state
+		q[action] = target;
+		memory.store(packedState, q, rand);
 
-	private void storeMemory(INDArray state, INDArray targetArr) {
-		if (memories < MAX_MEMORIES) {
-			states.putRow(memories, state);
-			outputs.putRow(memories, targetArr);
-			memories++;
+		// The next state and its online Q values become the state the next decide acts on
+		if (!dead) {
+			byte[] packed = packedState;
+			packedState = packedNextState;
+			packedNextState = packed;
+			float[] values = q;
+			q = nextQ;
+			nextQ = values;
+			qReady = true;
 		}
 	}
 
-	private INDArray generateState(TileMap map) {
-		TileType currentTile;
-		List<Double> state = new ArrayList<>();
-
-		for (int viewY = position.y() - VIEW_RANGE; viewY <= position.y() + VIEW_RANGE; viewY++) {
-			for (int viewX = position.x() - VIEW_RANGE; viewX <= position.x() + VIEW_RANGE; viewX++) {
-				if ((!(viewX == position.x() && viewY == position.y()))) {
-					if (map.outOfRange(viewX, viewY)) {
-						for (TileType type : TileType.values()) {
-							state.add(0.0);
-						}
-					} else {
-						currentTile = map.getTile(viewX, viewY);
-						for (TileType type : TileType.values()) {
-							if (type.equals(currentTile)) {
-								state.add(1.0);
-							} else {
-								state.add(0.0);
-							}
-						}
-					}
-				}
+	private static int bestAction(float[] values) {
+		int best = 0;
+		for (int i = 1; i < values.length; i++) {
+			if (values[i] > values[best]) {
+				best = i;
 			}
 		}
-		state.add((double) life);
-		return Nd4j.create(state.stream().mapToDouble(d -> d).toArray());
+		return best;
+	}
+
+	@Override
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	@Override
+	public boolean needsState() {
+		return !dead && !qReady;
+	}
+
+	@Override
+	public void writeState(TileMap map, float[] features, int offset) {
+		PackedState.pack(map, position.x(), position.y(), life, packedState, 0);
+		PackedState.unpack(packedState, 0, features, offset);
+	}
+
+	@Override
+	public void setQValues(float[] values, int offset) {
+		System.arraycopy(values, offset, q, 0, Policy.ACTIONS);
+		qReady = true;
+	}
+
+	@Override
+	public boolean needsNextState() {
+		return acted && !dead;
+	}
+
+	@Override
+	public void writeNextState(TileMap map, float[] features, int offset) {
+		PackedState.pack(map, position.x(), position.y(), life, packedNextState, 0);
+		PackedState.unpack(packedNextState, 0, features, offset);
+	}
+
+	@Override
+	public void setNextQValues(float[] online, float[] target, int offset) {
+		System.arraycopy(online, offset, nextQ, 0, Policy.ACTIONS);
+		System.arraycopy(target, offset, nextTargetQ, 0, Policy.ACTIONS);
+		nextQReady = true;
 	}
 
+	@Override
 	public void reset() {
 		life = INITIAL_LIFE;
 		fitness = 0;
 		dead = false;
-		if (memories > BATCH_SIZE) {
-			DataSet memory = new DataSet(states.get(NDArrayIndex.interval(0,memories), NDArrayIndex.all()), outputs.get(NDArrayIndex.interval(0,memories), NDArrayIndex.all()));
-			DataSet m = memory.sample(BATCH_SIZE,false);
-				net.fit(m.getFeatures(), m.getLabels());
+		qReady = false;
+		nextQReady = false;
+		// An AsyncLearner trains the policy in the background instead
+		if (!policy.isAsynchronous() && memory.size() > BATCH_SIZE) {
+			DataSet m = memory.sample(BATCH_SIZE, rand);
+			policy.fit(m);
 		}
 	}
 
+	@Override
 	public void setPosition(Vector2i position) {
 		this.position = position;
 		Logger.debug(this.toString() + " position: " + position.toString(), Category.ENTITIES);
 	}
 
+	@Override
 	public Vector2i getPosition() {
 		return position;
 	}
 
+	@Override
 	public int getFitness() {
 		return fitness;
 	}
 
+	@Override
 	public boolean isDead() {
 		return dead;
 	}
 
+	@Override
 	public void kill() {
 		dead = true;
 	}
@@ -0,0 +1,136 @@
+package entities;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+// Experience storage that grows a block at a time up to its capacity, then evicts to keep learning.
+// States are kept packed and only expanded to features for a sampled batch. Safe to sample from a learner thread
+public class ReplayMemory {
+
+	public enum Eviction {
+		// Overwrites the oldest memory
+		FIFO,
+		// Keeps a uniform sample of everything ever stored
+		RESERVOIR
+	}
+
+	private static final int BLOCK_SIZE = 1024;
+
+	private int capacity;
+	private int outputs;
+	private Eviction eviction;
+	private List<byte[]> stateBlocks = new ArrayList<>();
+	private List<float[]> outputBlocks = new ArrayList<>();
+	private int size = 0;
+	private int oldest = 0;
+	private long stored = 0;
+
+	public ReplayMemory(int capacity, int outputs, Eviction eviction) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Replay memory capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.outputs = outputs;
+		this.eviction = eviction;
+	}
+
+	public synchronized void store(byte[] state, float[] output, SplittableRandom rand) {
+		int slot = nextSlot(rand);
+		if (slot < 0) {
+			return;
+		}
+		System.arraycopy(state, 0, stateBlocks.get(slot / BLOCK_SIZE), (slot % BLOCK_SIZE) * PackedState.BYTES,
+				PackedState.BYTES);
+		System.arraycopy(output, 0, outputBlocks.get(slot / BLOCK_SIZE), (slot % BLOCK_SIZE) * outputs, outputs);
+	}
+
+	// Returns the slot to write the next memory to, or -1 if reservoir sampling drops it
+	private int nextSlot(SplittableRandom rand) {
+		stored++;
+		if (size < capacity) {
+			if (size == stateBlocks.size() * BLOCK_SIZE) {
+				int blockSize = Math.min(BLOCK_SIZE, capacity - size);
+				stateBlocks.add(new byte[blockSize * PackedState.BYTES]);
+				outputBlocks.add(new float[blockSize * outputs]);
+			}
+			return size++;
+		}
+		if (eviction == Eviction.FIFO) {
+			int slot = oldest;
+			oldest = (oldest + 1) % capacity;
+			return slot;
+		}
+		long slot = rand.nextLong(stored);
+		return slot < capacity ? (int) slot : -1;
+	}
+
+	// Samples distinct memories without replacement
+	public synchronized DataSet sample(int batchSize, SplittableRandom rand) {
+		int[] slots = sampleSlots(batchSize, rand);
+		float[] stateBatch = new float[slots.length * PackedState.FEATURES];
+		float[] outputBatch = new float[slots.length * outputs];
+		for (int i = 0; i < slots.length; i++) {
+			PackedState.unpack(stateBlocks.get(slots[i] / BLOCK_SIZE), (slots[i] % BLOCK_SIZE) * PackedState.BYTES,
+					stateBatch, i * PackedState.FEATURES);
+			getOutput(slots[i], outputBatch, i * outputs);
+		}
+		return new DataSet(Nd4j.create(stateBatch, new int[] { slots.length, PackedState.FEATURES }),
+				Nd4j.create(outputBatch, new int[] { slots.length, outputs }));
+	}
+
+	public synchronized int[] sampleSlots(int batchSize, SplittableRandom rand) {
+		int count = Math.min(batchSize, size);
+		int[] slots = new int[count];
+		// Floyd's algorithm, O(count) regardless of memory size
+		Set<Integer> chosen = new HashSet<>();
+		int index = 0;
+		for (int i = size - count; i < size; i++) {
+			int slot = rand.nextInt(i + 1);
+			if (!chosen.add(slot)) {
+				slot = i;
+				chosen.add(slot);
+			}
+			slots[index++] = slot;
+		}
+		return slots;
+	}
+
+	public synchronized void getState(int slot, byte[] dest, int offset) {
+		System.arraycopy(stateBlocks.get(slot / BLOCK_SIZE), (slot % BLOCK_SIZE) * PackedState.BYTES, dest, offset,
+				PackedState.BYTES);
+	}
+
+	public synchronized void getOutput(int slot, float[] dest, int offset) {
+		System.arraycopy(outputBlocks.get(slot / BLOCK_SIZE), (slot % BLOCK_SIZE) * outputs, dest, offset, outputs);
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public Eviction getEviction() {
+		return eviction;
+	}
+
+	public synchronized long getStored() {
+		return stored;
+	}
+
+	public synchronized int getAllocatedSlots() {
+		int slots = 0;
+		for (byte[] block : stateBlocks) {
+			slots += block.length / PackedState.BYTES;
+		}
+		return slots;
+	}
+}
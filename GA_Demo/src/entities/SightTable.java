@@ -0,0 +1,107 @@
+package entities;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SightTable {
+
+	private static final Map<Integer, SightTable> TABLES = new ConcurrentHashMap<>();
+
+	private final int range;
+	private final int width;
+	// Cells on the Bresenham line to each offset, excluding the origin and ending at the offset itself
+	private final int[][] rays;
+	private final int[][] raysX;
+	private final int[][] raysY;
+
+	private SightTable(int range) {
+		this.range = range;
+		width = 2 * range + 1;
+		rays = new int[width * width][];
+		raysX = new int[width * width][];
+		raysY = new int[width * width][];
+		for (int dy = -range; dy <= range; dy++) {
+			for (int dx = -range; dx <= range; dx++) {
+				int offset = offset(dx, dy);
+				rays[offset] = trace(dx, dy);
+				raysX[offset] = new int[rays[offset].length];
+				raysY[offset] = new int[rays[offset].length];
+				for (int i = 0; i < rays[offset].length; i++) {
+					raysX[offset][i] = offsetX(rays[offset][i]);
+					raysY[offset][i] = offsetY(rays[offset][i]);
+				}
+			}
+		}
+	}
+
+	public static SightTable forRange(int range) {
+		return TABLES.computeIfAbsent(range, SightTable::new);
+	}
+
+	public int[] getRay(int offset) {
+		return rays[offset];
+	}
+
+	public int[] getRayX(int offset) {
+		return raysX[offset];
+	}
+
+	public int[] getRayY(int offset) {
+		return raysY[offset];
+	}
+
+	public int getFirstStep(int offset) {
+		return rays[offset][0];
+	}
+
+	public int offset(int dx, int dy) {
+		return (dy + range) * width + (dx + range);
+	}
+
+	public int offsetX(int offset) {
+		return offset % width - range;
+	}
+
+	public int offsetY(int offset) {
+		return offset / width - range;
+	}
+
+	public int getRange() {
+		return range;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int[] trace(int goalX, int goalY) {
+		int[] cells = new int[Math.max(Math.abs(goalX), Math.abs(goalY))];
+		int count = 0;
+		int x0 = 0;
+		int y0 = 0;
+
+		int dx = Math.abs(goalX);
+		int dy = Math.abs(goalY);
+
+		int sx = 0 < goalX ? 1 : -1;
+		int sy = 0 < goalY ? 1 : -1;
+
+		int err = dx - dy;
+		int e2;
+
+		while (!(x0 == goalX && y0 == goalY)) {
+			e2 = 2 * err;
+			if (e2 > -dy) {
+				err = err - dy;
+				x0 = x0 + sx;
+			}
+
+			if (e2 < dx) {
+				err = err + dx;
+				y0 = y0 + sy;
+			}
+			cells[count++] = offset(x0, y0);
+		}
+		return cells;
+	}
+}
@@ -1,25 +1,34 @@
 package genes;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+
+import random.RandomStreams;
 
 public class BooleanGene extends Gene<Boolean> {
 
 	private boolean value;
 
 	public BooleanGene(String name) {
-		super(name);
-		Random rand = new Random();
+		this(name, RandomStreams.split());
+	}
+
+	public BooleanGene(String name, SplittableRandom rand) {
+		super(name, rand);
 		value = rand.nextBoolean();
 	}
 
+	public BooleanGene(String name, boolean value, SplittableRandom rand) {
+		super(name, rand);
+		this.value = value;
+	}
+
 	public BooleanGene(BooleanGene gene) {
-		super(gene.getName());
+		super(gene.getName(), gene.rand.split());
 		value = gene.getValue();
 	}
 
-	public BooleanGene(BooleanGene parent1, BooleanGene parent2) {
-		super(parent1.getName());
-		Random rand = new Random();
+	public BooleanGene(BooleanGene parent1, BooleanGene parent2, SplittableRandom rand) {
+		super(parent1.getName(), rand);
 		if (rand.nextBoolean()) {
 			value = parent1.getValue();
 		} else {
@@ -37,6 +46,10 @@ public class BooleanGene extends Gene<Boolean> {
 		return value;
 	}
 
+	public boolean getBoolean() {
+		return value;
+	}
+
 	@Override
 	public String toString() {
 		return name + ": " + value;
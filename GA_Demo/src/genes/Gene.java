@@ -1,11 +1,15 @@
 package genes;
 
+import java.util.SplittableRandom;
+
 public abstract class Gene<T> {
 
 	protected String name;
+	protected SplittableRandom rand;
 
-	public Gene(String name) {
+	public Gene(String name, SplittableRandom rand) {
 		this.name = name;
+		this.rand = rand;
 	}
 
 	public String getName() {
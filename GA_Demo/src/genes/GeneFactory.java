@@ -0,0 +1,89 @@
+package genes;
+
+import java.util.SplittableRandom;
+
+public interface GeneFactory<G extends Gene<?>> {
+
+	G create(String name, SplittableRandom rand);
+
+	G copy(G gene);
+
+	G crossover(G parent1, G parent2, SplittableRandom rand);
+
+	static GeneFactory<IntegerGene> ofInteger(int valueCap) {
+		return new GeneFactory<IntegerGene>() {
+			@Override
+			public IntegerGene create(String name, SplittableRandom rand) {
+				return new IntegerGene(name, valueCap, rand);
+			}
+
+			@Override
+			public IntegerGene copy(IntegerGene gene) {
+				return new IntegerGene(gene);
+			}
+
+			@Override
+			public IntegerGene crossover(IntegerGene parent1, IntegerGene parent2, SplittableRandom rand) {
+				return new IntegerGene(parent1, parent2, rand);
+			}
+		};
+	}
+
+	static GeneFactory<BooleanGene> ofBoolean() {
+		return new GeneFactory<BooleanGene>() {
+			@Override
+			public BooleanGene create(String name, SplittableRandom rand) {
+				return new BooleanGene(name, rand);
+			}
+
+			@Override
+			public BooleanGene copy(BooleanGene gene) {
+				return new BooleanGene(gene);
+			}
+
+			@Override
+			public BooleanGene crossover(BooleanGene parent1, BooleanGene parent2, SplittableRandom rand) {
+				return new BooleanGene(parent1, parent2, rand);
+			}
+		};
+	}
+
+	static <T extends Enum<T>> GeneFactory<OrderGene<T>> ofOrder(Class<T> enumType) {
+		return new GeneFactory<OrderGene<T>>() {
+			@Override
+			public OrderGene<T> create(String name, SplittableRandom rand) {
+				return new OrderGene<>(name, enumType, rand);
+			}
+
+			@Override
+			public OrderGene<T> copy(OrderGene<T> gene) {
+				return new OrderGene<>(gene);
+			}
+
+			@Override
+			public OrderGene<T> crossover(OrderGene<T> parent1, OrderGene<T> parent2, SplittableRandom rand) {
+				return new OrderGene<>(parent1, parent2, rand);
+			}
+		};
+	}
+
+	static <K extends Enum<K>, V extends Enum<V>> GeneFactory<MapGene<K, V>> ofMap(Class<K> keyType,
+			Class<V> valueType) {
+		return new GeneFactory<MapGene<K, V>>() {
+			@Override
+			public MapGene<K, V> create(String name, SplittableRandom rand) {
+				return new MapGene<>(name, keyType, valueType, rand);
+			}
+
+			@Override
+			public MapGene<K, V> copy(MapGene<K, V> gene) {
+				return new MapGene<>(gene);
+			}
+
+			@Override
+			public MapGene<K, V> crossover(MapGene<K, V> parent1, MapGene<K, V> parent2, SplittableRandom rand) {
+				return new MapGene<>(parent1, parent2, rand);
+			}
+		};
+	}
+}
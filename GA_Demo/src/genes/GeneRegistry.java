@@ -0,0 +1,30 @@
+package genes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class GeneRegistry {
+
+	private Map<String, GeneFactory<?>> factories = new LinkedHashMap<>();
+
+	public GeneRegistry register(String kind, GeneFactory<?> factory) {
+		if (factories.containsKey(kind)) {
+			throw new IllegalArgumentException("Gene kind already registered: " + kind);
+		}
+		factories.put(kind, factory);
+		return this;
+	}
+
+	public GeneFactory<?> getFactory(String kind) {
+		GeneFactory<?> factory = factories.get(kind);
+		if (factory == null) {
+			throw new IllegalArgumentException("Unknown gene kind: " + kind);
+		}
+		return factory;
+	}
+
+	public Set<String> getKinds() {
+		return factories.keySet();
+	}
+}
@@ -0,0 +1,89 @@
+package genes;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// A fixed list of genes built from registered gene kinds, crossed over and mutated gene by gene
+public class Genome {
+
+	private GeneFactory<?>[] factories;
+	private String[] kinds;
+	private Gene<?>[] genes;
+
+	public Genome(GeneRegistry registry, SplittableRandom rand, String... kinds) {
+		this.kinds = kinds.clone();
+		factories = new GeneFactory<?>[kinds.length];
+		genes = new Gene<?>[kinds.length];
+		for (int i = 0; i < kinds.length; i++) {
+			factories[i] = registry.getFactory(kinds[i]);
+			genes[i] = factories[i].create(kinds[i], rand.split());
+		}
+	}
+
+	public Genome(Genome genome) {
+		kinds = genome.kinds;
+		factories = genome.factories;
+		genes = new Gene<?>[kinds.length];
+		for (int i = 0; i < kinds.length; i++) {
+			genes[i] = copy(factories[i], genome.genes[i]);
+		}
+	}
+
+	public Genome(Genome parent1, Genome parent2, SplittableRandom rand) {
+		if (!Arrays.equals(parent1.kinds, parent2.kinds)) {
+			throw new IllegalArgumentException("Parents have different gene kinds");
+		}
+		kinds = parent1.kinds;
+		factories = parent1.factories;
+		genes = new Gene<?>[kinds.length];
+		for (int i = 0; i < kinds.length; i++) {
+			genes[i] = crossover(factories[i], parent1.genes[i], parent2.genes[i], rand.split());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <G extends Gene<?>> G copy(GeneFactory<G> factory, Gene<?> gene) {
+		return factory.copy((G) gene);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <G extends Gene<?>> G crossover(GeneFactory<G> factory, Gene<?> parent1, Gene<?> parent2,
+			SplittableRandom rand) {
+		return factory.crossover((G) parent1, (G) parent2, rand);
+	}
+
+	public void mutate(double rate, SplittableRandom rand) {
+		for (Gene<?> gene : genes) {
+			if (rand.nextDouble() <= rate) {
+				gene.mutate();
+			}
+		}
+	}
+
+	// Look genes up once and keep the typed reference, so hot paths read primitives straight off the gene
+	public <G extends Gene<?>> G get(String kind, Class<G> type) {
+		for (int i = 0; i < kinds.length; i++) {
+			if (kinds[i].equals(kind)) {
+				return type.cast(genes[i]);
+			}
+		}
+		throw new IllegalArgumentException("No gene of kind: " + kind);
+	}
+
+	public Gene<?> get(int index) {
+		return genes[index];
+	}
+
+	public int size() {
+		return genes.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder outputString = new StringBuilder();
+		for (Gene<?> gene : genes) {
+			outputString.append(gene.toString()).append("\n");
+		}
+		return outputString.toString();
+	}
+}
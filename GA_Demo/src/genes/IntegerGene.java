@@ -1,6 +1,8 @@
 package genes;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+
+import random.RandomStreams;
 
 public class IntegerGene extends Gene<Integer> {
 
@@ -8,21 +10,30 @@ public class IntegerGene extends Gene<Integer> {
 	private int valueCap;
 
 	public IntegerGene(String name, int valueCap) {
-		super(name);
+		this(name, valueCap, RandomStreams.split());
+	}
+
+	public IntegerGene(String name, int valueCap, SplittableRandom rand) {
+		super(name, rand);
 		this.valueCap = valueCap;
 
-		Random rand = new Random();
 		value = rand.nextInt(valueCap);
 	}
 
+	public IntegerGene(String name, int valueCap, int value, SplittableRandom rand) {
+		super(name, rand);
+		this.valueCap = valueCap;
+		this.value = value;
+	}
+
 	public IntegerGene(IntegerGene gene) {
-		super(gene.name);
+		super(gene.name, gene.rand.split());
 		value = gene.value;
 		valueCap = gene.valueCap;
 	}
 
-	public IntegerGene(IntegerGene parent1, IntegerGene parent2) {
-		super(parent1.name);
+	public IntegerGene(IntegerGene parent1, IntegerGene parent2, SplittableRandom rand) {
+		super(parent1.name, rand);
 		valueCap = parent1.valueCap;
 		int midpoint = Math.abs(parent1.value - parent2.value) / 2;
 		if (parent1.value < parent2.value) {
@@ -39,7 +50,6 @@ public class IntegerGene extends Gene<Integer> {
 		} else if (value == valueCap) {
 			value--;
 		} else {
-			Random rand = new Random();
 			if (rand.nextBoolean()) {
 				value++;
 			} else {
@@ -53,6 +63,14 @@ public class IntegerGene extends Gene<Integer> {
 		return value;
 	}
 
+	public int getInt() {
+		return value;
+	}
+
+	public int getValueCap() {
+		return valueCap;
+	}
+
 	@Override
 	public String toString() {
 		return name + ": " + value;
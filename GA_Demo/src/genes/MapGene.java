@@ -3,10 +3,11 @@ package genes;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import logging.Logger;
 import logging.Logger.Category;
+import random.RandomStreams;
 
 public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V>> {
 
@@ -15,14 +16,17 @@ public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V
 	private Class<V> valueType;
 
 	public MapGene(String name, Class<K> keyType, Class<V> valueType) {
-		super(name);
+		this(name, keyType, valueType, RandomStreams.split());
+	}
+
+	public MapGene(String name, Class<K> keyType, Class<V> valueType, SplittableRandom rand) {
+		super(name, rand);
 		this.keyType = keyType;
 		this.valueType = valueType;
 		valueMap = new EnumMap<>(keyType);
 		V[] values = valueType.getEnumConstants();
 		K[] keys = keyType.getEnumConstants();
 
-		Random rand = new Random();
 		for (int i = 0; i < keys.length; i++) {
 			valueMap.put(keys[i], values[rand.nextInt(values.length)]);
 		}
@@ -30,20 +34,27 @@ public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V
 		Logger.debug(toString(), Category.CHROMESOMES);
 	}
 
+	public MapGene(String name, Class<K> keyType, Class<V> valueType, Map<K, V> values, SplittableRandom rand) {
+		super(name, rand);
+		this.keyType = keyType;
+		this.valueType = valueType;
+		valueMap = new EnumMap<>(keyType);
+		valueMap.putAll(values);
+	}
+
 	public MapGene(MapGene<K, V> mapGene) {
-		super(mapGene.getName());
+		super(mapGene.getName(), mapGene.rand.split());
 		keyType = mapGene.getKeyType();
 		valueType = mapGene.getValueType();
 		valueMap = new EnumMap<>(keyType);
 		valueMap.putAll(mapGene.getValue());
 	}
 
-	public MapGene(MapGene<K, V> parent1, MapGene<K, V> parent2) {
-		super(parent1.name);
+	public MapGene(MapGene<K, V> parent1, MapGene<K, V> parent2, SplittableRandom rand) {
+		super(parent1.name, rand);
 		keyType = parent1.getKeyType();
 		valueType = parent1.getValueType();
 		valueMap = new EnumMap<>(keyType);
-		Random rand = new Random();
 		if (rand.nextBoolean()) {
 			combineReactions(parent1, parent2);
 		} else {
@@ -53,7 +64,7 @@ public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V
 
 	private void combineReactions(MapGene<K, V> parent1, MapGene<K, V> parent2) {
 		K[] tiles = keyType.getEnumConstants();
-		valueMap = parent1.getValue();
+		valueMap.putAll(parent1.getValue());
 		valueMap.put(tiles[0], parent2.getValue().get(tiles[0]));
 		valueMap.put(tiles[1], parent2.getValue().get(tiles[1]));
 	}
@@ -68,7 +79,6 @@ public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V
 
 	@Override
 	public void mutate() {
-		Random rand = new Random();
 		V[] actions = valueType.getEnumConstants();
 		K[] tiles = keyType.getEnumConstants();
 
@@ -84,6 +94,10 @@ public class MapGene<K extends Enum<K>, V extends Enum<V>> extends Gene<Map<K, V
 		return valueMap.get(tile);
 	}
 
+	public int getOrdinal(K key) {
+		return valueMap.get(key).ordinal();
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder outputString = new StringBuilder();
@@ -3,60 +3,212 @@ package genes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import logging.Logger;
 import logging.Logger.Category;
+import random.RandomStreams;
 
 public class OrderGene<T extends Enum<T>> extends Gene<List<T>> {
 
+	// Used values are tracked by ordinal in a long
+	public static final int MAX_VALUES = Long.SIZE;
+
 	private List<T> list = new ArrayList<>();
+	private long used = 0;
 
 	public OrderGene(String name, Class<T> enumType) {
-		super(name);
-		Random rand = new Random();
+		this(name, enumType, RandomStreams.split());
+	}
+
+	public OrderGene(String name, Class<T> enumType, SplittableRandom rand) {
+		super(name, rand);
 		T[] enumValues = enumType.getEnumConstants();
-		T temp;
+		checkSize(enumValues.length);
 
-		for (int i = 0; i < enumValues.length; i++) {
-			do {
-				temp = enumValues[rand.nextInt(enumValues.length)];
-			} while (list.contains(temp));
-			list.add(temp);
+		for (int i = enumValues.length - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			T temp = enumValues[i];
+			enumValues[i] = enumValues[j];
+			enumValues[j] = temp;
+		}
+		for (T value : enumValues) {
+			add(value);
 		}
 
 		Logger.debug(toString(), Category.CHROMESOMES);
 	}
 
+	public OrderGene(String name, List<T> values, SplittableRandom rand) {
+		super(name, rand);
+		checkSize(values.size());
+		for (T value : values) {
+			add(value);
+		}
+	}
+
 	public OrderGene(OrderGene<T> orderChromesome) {
-		super(orderChromesome.getName());
-		list.addAll(orderChromesome.getValue());
+		super(orderChromesome.getName(), orderChromesome.rand.split());
+		list.addAll(orderChromesome.list);
+		used = orderChromesome.used;
 	}
 
-	public OrderGene(OrderGene<T> parent1, OrderGene<T> parent2) {
-		super(parent1.getName());
-		Random rand = new Random();
+	public OrderGene(OrderGene<T> parent1, OrderGene<T> parent2, SplittableRandom rand) {
+		super(parent1.getName(), rand);
+		int cursor1 = 0;
+		int cursor2 = 0;
 		do {
 			if (rand.nextBoolean()) {
-				addUniqueValueFromParent(parent1);
+				cursor1 = addUniqueValueFromParent(parent1, cursor1);
 			} else {
-				addUniqueValueFromParent(parent2);
+				cursor2 = addUniqueValueFromParent(parent2, cursor2);
 			}
-		} while (list.size() < parent1.getValue().size());
+		} while (list.size() < parent1.list.size());
+	}
+
+	private OrderGene(String name, SplittableRandom rand) {
+		super(name, rand);
+	}
+
+	private static void checkSize(int size) {
+		if (size > MAX_VALUES) {
+			throw new IllegalArgumentException("OrderGene supports at most " + MAX_VALUES + " values, got " + size);
+		}
+	}
+
+	private void add(T value) {
+		list.add(value);
+		used |= 1L << value.ordinal();
+	}
+
+	private boolean isUsed(T value) {
+		return (used & (1L << value.ordinal())) != 0;
 	}
 
 	public void addUniqueValueFromParent(OrderGene<T> parent) {
-		T next;
-		int index = 0;
-		do {
-			next = parent.getValue().get(index++);
-		} while (list.contains(next));
-		list.add(next);
+		addUniqueValueFromParent(parent, 0);
+	}
+
+	// Values only ever become used, so each parent's next unused value is never before its last cursor
+	private int addUniqueValueFromParent(OrderGene<T> parent, int cursor) {
+		List<T> values = parent.list;
+		while (isUsed(values.get(cursor))) {
+			cursor++;
+		}
+		add(values.get(cursor));
+		return cursor + 1;
+	}
+
+	// Order crossover (OX): keeps a slice of parent1 in place and fills the rest in parent2's order
+	public static <T extends Enum<T>> OrderGene<T> orderCrossover(OrderGene<T> parent1, OrderGene<T> parent2,
+			SplittableRandom rand) {
+		List<T> values1 = parent1.list;
+		List<T> values2 = parent2.list;
+		int size = values1.size();
+		int start = rand.nextInt(size);
+		int end = rand.nextInt(size);
+		if (start > end) {
+			int temp = start;
+			start = end;
+			end = temp;
+		}
+
+		List<T> child = new ArrayList<>(Collections.nCopies(size, (T) null));
+		long used = 0;
+		for (int i = start; i <= end; i++) {
+			child.set(i, values1.get(i));
+			used |= 1L << values1.get(i).ordinal();
+		}
+		int position = (end + 1) % size;
+		for (int i = 0; i < size; i++) {
+			T value = values2.get((end + 1 + i) % size);
+			if ((used & (1L << value.ordinal())) == 0) {
+				child.set(position, value);
+				position = (position + 1) % size;
+			}
+		}
+		return fromList(parent1.getName(), child, rand);
+	}
+
+	// Partially mapped crossover (PMX): keeps a slice of parent1 and maps clashing parent2 values through it
+	public static <T extends Enum<T>> OrderGene<T> partiallyMappedCrossover(OrderGene<T> parent1,
+			OrderGene<T> parent2, SplittableRandom rand) {
+		List<T> values1 = parent1.list;
+		List<T> values2 = parent2.list;
+		int size = values1.size();
+		int start = rand.nextInt(size);
+		int end = rand.nextInt(size);
+		if (start > end) {
+			int temp = start;
+			start = end;
+			end = temp;
+		}
+
+		int[] positions1 = parent1.getPositions();
+		List<T> child = new ArrayList<>(values2);
+		long segment = 0;
+		for (int i = start; i <= end; i++) {
+			child.set(i, values1.get(i));
+			segment |= 1L << values1.get(i).ordinal();
+		}
+		for (int i = 0; i < size; i++) {
+			if (i >= start && i <= end) {
+				continue;
+			}
+			T value = values2.get(i);
+			while ((segment & (1L << value.ordinal())) != 0) {
+				value = values2.get(positions1[value.ordinal()]);
+			}
+			child.set(i, value);
+		}
+		return fromList(parent1.getName(), child, rand);
+	}
+
+	// Cycle crossover (CX): every value keeps the position it had in one of the parents
+	public static <T extends Enum<T>> OrderGene<T> cycleCrossover(OrderGene<T> parent1, OrderGene<T> parent2,
+			SplittableRandom rand) {
+		List<T> values1 = parent1.list;
+		List<T> values2 = parent2.list;
+		int size = values1.size();
+		int[] positions1 = parent1.getPositions();
+
+		List<T> child = new ArrayList<>(Collections.nCopies(size, (T) null));
+		long assigned = 0;
+		boolean fromFirst = true;
+		for (int start = 0; start < size; start++) {
+			if ((assigned & (1L << start)) != 0) {
+				continue;
+			}
+			int i = start;
+			do {
+				child.set(i, fromFirst ? values1.get(i) : values2.get(i));
+				assigned |= 1L << i;
+				i = positions1[values2.get(i).ordinal()];
+			} while (i != start);
+			fromFirst = !fromFirst;
+		}
+		return fromList(parent1.getName(), child, rand);
+	}
+
+	private static <T extends Enum<T>> OrderGene<T> fromList(String name, List<T> values, SplittableRandom rand) {
+		OrderGene<T> gene = new OrderGene<>(name, rand);
+		for (T value : values) {
+			gene.add(value);
+		}
+		return gene;
+	}
+
+	// Rank of each value, indexed by ordinal
+	private int[] getPositions() {
+		int[] positions = new int[MAX_VALUES];
+		for (int i = 0; i < list.size(); i++) {
+			positions[list.get(i).ordinal()] = i;
+		}
+		return positions;
 	}
 
 	public void switchPriorities() {
-		Random rand = new Random();
-		int index = rand.nextInt(4);
+		int index = rand.nextInt(list.size());
 		if (index == list.size() - 1) {
 			Collections.swap(list, index, 0);
 		} else {
@@ -65,22 +217,52 @@ public class OrderGene<T extends Enum<T>> extends Gene<List<T>> {
 	}
 
 	public void switchRandomPriorities() {
-		Random rand = new Random();
-		int index1 = rand.nextInt(4);
+		// A single value has nothing to swap with
+		if (list.size() < 2) {
+			return;
+		}
+		int index1 = rand.nextInt(list.size());
 		int index2;
 		do {
-			index2 = rand.nextInt(4);
+			index2 = rand.nextInt(list.size());
 		} while (index2 == index1);
 		Collections.swap(list, index1, index2);
 	}
 
+	// Reverses a random slice
+	public void invert() {
+		int start = rand.nextInt(list.size());
+		int end = rand.nextInt(list.size());
+		Collections.reverse(list.subList(Math.min(start, end), Math.max(start, end) + 1));
+	}
+
+	// Shuffles a random slice
+	public void scramble() {
+		int start = rand.nextInt(list.size());
+		int end = rand.nextInt(list.size());
+		int from = Math.min(start, end);
+		int to = Math.max(start, end);
+		for (int i = to; i > from; i--) {
+			Collections.swap(list, i, from + rand.nextInt(i - from + 1));
+		}
+	}
+
 	public int getPriority(T value) {
 		return list.indexOf(value);
 	}
 
+	public int getOrdinal(int rank) {
+		return list.get(rank).ordinal();
+	}
+
+	public int size() {
+		return list.size();
+	}
+
+	// Read only, the order only changes through the gene's own operators
 	@Override
 	public List<T> getValue() {
-		return list;
+		return Collections.unmodifiableList(list);
 	}
 
 	@Override
@@ -0,0 +1,135 @@
+package genes;
+
+import java.util.SplittableRandom;
+
+// An Entity genome packed into one long:
+// bits 0-7 priority order (2 bit tile ordinal per rank), bits 8-15 reaction (2 bit action ordinal per tile),
+// bit 16 aggression, bits 17-20 hunger threshold
+public final class PackedGenome {
+
+	public static final int TILES = 4;
+	public static final int ACTIONS = 3;
+	public static final int HUNGER_MAX = 15;
+
+	private static final int PRIORITY_SHIFT = 0;
+	private static final int REACTION_SHIFT = 8;
+	private static final int AGGRESSION_SHIFT = 16;
+	private static final int HUNGER_SHIFT = 17;
+	private static final long FIELD_MASK = 0b11;
+	private static final long HUNGER_MASK = 0b1111;
+	private static final long REACTION_BITS = 0xFFL << REACTION_SHIFT;
+	// Crossover takes the reactions to the first two tiles from the second parent
+	private static final long CROSSOVER_REACTION_BITS = 0xFL << REACTION_SHIFT;
+	private static final long AGGRESSION_BIT = 1L << AGGRESSION_SHIFT;
+	private static final long HUNGER_BITS = HUNGER_MASK << HUNGER_SHIFT;
+
+	private PackedGenome() {
+	}
+
+	public static long random(int hungerCap, SplittableRandom rand) {
+		long genome = 0;
+		int used = 0;
+		for (int rank = 0; rank < TILES; rank++) {
+			int tile;
+			do {
+				tile = rand.nextInt(TILES);
+			} while ((used & (1 << tile)) != 0);
+			used |= 1 << tile;
+			genome = withPriority(genome, rank, tile);
+		}
+		for (int tile = 0; tile < TILES; tile++) {
+			genome = withReaction(genome, tile, rand.nextInt(ACTIONS));
+		}
+		genome = withAggression(genome, rand.nextBoolean());
+		return withHunger(genome, rand.nextInt(hungerCap));
+	}
+
+	public static long crossover(long parent1, long parent2, SplittableRandom rand) {
+		long genome = 0;
+
+		// Interleave the priority orders, each time taking the highest unused tile of a random parent
+		int used = 0;
+		for (int rank = 0; rank < TILES; rank++) {
+			long parent = rand.nextBoolean() ? parent1 : parent2;
+			int index = 0;
+			int tile;
+			do {
+				tile = getPriority(parent, index++);
+			} while ((used & (1 << tile)) != 0);
+			used |= 1 << tile;
+			genome = withPriority(genome, rank, tile);
+		}
+
+		if (rand.nextBoolean()) {
+			genome |= (parent1 & REACTION_BITS & ~CROSSOVER_REACTION_BITS) | (parent2 & CROSSOVER_REACTION_BITS);
+		} else {
+			genome |= (parent2 & REACTION_BITS & ~CROSSOVER_REACTION_BITS) | (parent1 & CROSSOVER_REACTION_BITS);
+		}
+
+		genome |= (rand.nextBoolean() ? parent1 : parent2) & AGGRESSION_BIT;
+		return withHunger(genome, (getHunger(parent1) + getHunger(parent2)) / 2);
+	}
+
+	public static long mutate(long genome, double rate, SplittableRandom rand) {
+		if (rand.nextDouble() <= rate) {
+			int rank = rand.nextInt(TILES);
+			int other = rank == TILES - 1 ? 0 : rank + 1;
+			int tile = getPriority(genome, rank);
+			genome = withPriority(genome, rank, getPriority(genome, other));
+			genome = withPriority(genome, other, tile);
+		}
+		if (rand.nextDouble() <= rate) {
+			int tile = rand.nextInt(TILES);
+			genome = withReaction(genome, tile, rand.nextInt(ACTIONS));
+		}
+		if (rand.nextDouble() <= rate) {
+			genome ^= AGGRESSION_BIT;
+		}
+		if (rand.nextDouble() <= rate) {
+			int hunger = getHunger(genome);
+			if (hunger == 0) {
+				hunger++;
+			} else if (hunger == HUNGER_MAX) {
+				hunger--;
+			} else {
+				hunger += rand.nextBoolean() ? 1 : -1;
+			}
+			genome = withHunger(genome, hunger);
+		}
+		return genome;
+	}
+
+	public static int getPriority(long genome, int rank) {
+		return (int) ((genome >>> (PRIORITY_SHIFT + 2 * rank)) & FIELD_MASK);
+	}
+
+	public static int getReaction(long genome, int tile) {
+		return (int) ((genome >>> (REACTION_SHIFT + 2 * tile)) & FIELD_MASK);
+	}
+
+	public static boolean isAggressive(long genome) {
+		return (genome & AGGRESSION_BIT) != 0;
+	}
+
+	public static int getHunger(long genome) {
+		return (int) ((genome >>> HUNGER_SHIFT) & HUNGER_MASK);
+	}
+
+	public static long withPriority(long genome, int rank, int tile) {
+		int shift = PRIORITY_SHIFT + 2 * rank;
+		return (genome & ~(FIELD_MASK << shift)) | ((long) tile << shift);
+	}
+
+	public static long withReaction(long genome, int tile, int action) {
+		int shift = REACTION_SHIFT + 2 * tile;
+		return (genome & ~(FIELD_MASK << shift)) | ((long) action << shift);
+	}
+
+	public static long withAggression(long genome, boolean aggressive) {
+		return aggressive ? genome | AGGRESSION_BIT : genome & ~AGGRESSION_BIT;
+	}
+
+	public static long withHunger(long genome, int hunger) {
+		return (genome & ~HUNGER_BITS) | ((long) hunger << HUNGER_SHIFT);
+	}
+}
@@ -11,7 +11,8 @@ public final class Logger {
 
 	private static final String PROPERTIES_LOCATION = "logger.properties";
 
-	private static Set<Category> categories;
+	// Read once when the class loads, as the learner thread and parallel workers log too
+	private static final Set<Category> categories = initialiseCategories();
 
 	public static void info(String message) {
 		if (info) {
@@ -23,11 +24,12 @@ public final class Logger {
 		System.out.println(new Timestamp(System.currentTimeMillis()).toString() + " LOG WARNING: " + message); // NOSONAR
 	}
 
+	public static boolean isDebugEnabled(Category c) {
+		return debug && (categories.contains(c) || categories.contains(Category.ALL));
+	}
+
 	public static void debug(String message, Category c) {
-		if (categories == null) {
-			initialiseCategories();
-		}
-		if (debug && (categories.contains(c) || categories.contains(Category.ALL)))
+		if (isDebugEnabled(c))
 			System.out.println(new Timestamp(System.currentTimeMillis()).toString() + " LOG DEBUG: " + message); // NOSONAR
 	}
 
@@ -40,12 +42,12 @@ public final class Logger {
 		e.printStackTrace(); // NOSONAR
 	}
 
-	private static void initialiseCategories() {
+	private static Set<Category> initialiseCategories() {
 		Set<Category> categories = new HashSet<>();
 		for (String category : FileManager.getProperties(PROPERTIES_LOCATION)) {
 			categories.add(Category.valueOf(category));
 		}
-		Logger.categories = categories;
+		return categories;
 	}
 
 	public enum Category {
@@ -1,41 +1,341 @@
 package main;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
 import display.Window;
+import entities.Entity;
 import logging.Logger;
+import map.Archipelago;
+import map.Archipelago.Topology;
+import map.BatchEvaluator;
+import map.ByteTileGrid;
+import map.ChunkedTileGrid;
+import map.FitnessCache;
+import map.Simulation;
+import map.SteadyStateVillage;
+import map.TileGrid;
 import map.Village;
+import random.RandomStreams;
 
 public class Main {
 
 	private static final int POPULATION_SIZE = 1;
-	private static final int MAP_SIZE = 50;
 	private static final int NUM_FOOD = 50;
+	private static final int DEFAULT_GENERATIONS = 100;
+	private static final int DEFAULT_MIGRATION_INTERVAL = 10;
+	private static final int DEFAULT_MIGRANTS = 1;
+	private static final int EPISODE_TICKS = 1000;
+	private static final int EVALUATION_ELITE = 2;
 
-	private Village village;
+	private Simulation village;
+	private int populationSize = POPULATION_SIZE;
+	private boolean steadyState = false;
+	private boolean batched = false;
+	private boolean asyncLearning = false;
+	private int learnerBatchSize = Village.DEFAULT_LEARNER_BATCH_SIZE;
+	private int publishInterval = Village.DEFAULT_PUBLISH_INTERVAL;
+	private int mapSize = 50;
+	private boolean chunked = false;
+	private boolean distanceFields = false;
 
 	private static final int SCREEN_WIDTH = 600;
 	private static final int SCREEN_HEIGHT = 600;
 
 	Window w;
 
+	private boolean headless = false;
+	private boolean parallel = false;
+	private int maxGenerations = 0;
+	private long timeBudget = 0;
+
+	private int islands = 0;
+	private int migrationInterval = DEFAULT_MIGRATION_INTERVAL;
+	private int migrants = DEFAULT_MIGRANTS;
+	private Topology topology = Topology.RING;
+
+	private int evaluations = 0;
+	private int cacheSize = 0;
+
+	private volatile boolean running = true;
+
+	public Main(String[] args) {
+		parseArgs(args);
+	}
+
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-headless":
+				headless = true;
+				break;
+			case "-seed":
+				RandomStreams.setSeed(Long.parseLong(args[++i]));
+				break;
+			case "-map":
+				mapSize = Integer.parseInt(args[++i]);
+				break;
+			case "-chunked":
+				chunked = true;
+				break;
+			case "-fields":
+				distanceFields = true;
+				break;
+			case "-parallel":
+				parallel = true;
+				break;
+			case "-population":
+				populationSize = Integer.parseInt(args[++i]);
+				break;
+			case "-steady":
+				steadyState = true;
+				break;
+			case "-batched":
+				batched = true;
+				break;
+			case "-async":
+				asyncLearning = true;
+				break;
+			case "-learner-batch":
+				learnerBatchSize = Integer.parseInt(args[++i]);
+				break;
+			case "-publish-interval":
+				publishInterval = Integer.parseInt(args[++i]);
+				break;
+			case "-generations":
+				maxGenerations = Integer.parseInt(args[++i]);
+				break;
+			case "-seconds":
+				timeBudget = (long) (Double.parseDouble(args[++i]) * 1000);
+				break;
+			case "-islands":
+				islands = Integer.parseInt(args[++i]);
+				if (islands <= 0) {
+					islands = Runtime.getRuntime().availableProcessors();
+				}
+				headless = true;
+				break;
+			case "-migration":
+				migrationInterval = Integer.parseInt(args[++i]);
+				break;
+			case "-migrants":
+				migrants = Integer.parseInt(args[++i]);
+				break;
+			case "-topology":
+				topology = Topology.valueOf(args[++i].toUpperCase());
+				break;
+			case "-evaluate":
+				evaluations = Integer.parseInt(args[++i]);
+				headless = true;
+				break;
+			case "-cache":
+				cacheSize = Integer.parseInt(args[++i]);
+				break;
+			default:
+				Logger.warn("Unknown argument: " + args[i]);
+			}
+		}
+		// The window renders every cell, which defeats the point of a sparse grid
+		if (chunked && !headless) {
+			throw new IllegalArgumentException("-chunked requires -headless");
+		}
+		// Islands and batch evaluation build their own maps and villages, and already spread across the cores
+		if ((chunked || parallel || steadyState) && (islands > 0 || evaluations > 0)) {
+			throw new IllegalArgumentException("-chunked, -parallel and -steady do not apply to -islands or -evaluate");
+		}
+		// The island and steady-state runs and batch evaluation do not use a shared RL policy
+		if ((asyncLearning || batched) && (steadyState || islands > 0 || evaluations > 0)) {
+			throw new IllegalArgumentException("-async and -batched only apply to the generational village");
+		}
+		if (!asyncLearning && (learnerBatchSize != Village.DEFAULT_LEARNER_BATCH_SIZE
+				|| publishInterval != Village.DEFAULT_PUBLISH_INTERVAL)) {
+			throw new IllegalArgumentException("-learner-batch and -publish-interval require -async");
+		}
+		if (learnerBatchSize <= 0 || publishInterval <= 0) {
+			throw new IllegalArgumentException("-learner-batch and -publish-interval must be positive");
+		}
+		// Only the GA entities read distance fields, the generational village runs RL agents
+		if (distanceFields && !steadyState && evaluations <= 0) {
+			throw new IllegalArgumentException("-fields requires -steady or -evaluate");
+		}
+		if (headless && maxGenerations <= 0 && timeBudget <= 0) {
+			maxGenerations = DEFAULT_GENERATIONS;
+		}
+	}
+
 	public void run() {
+		if (evaluations > 0) {
+			runEvaluation();
+		} else if (islands > 0) {
+			runIslands();
+		} else if (headless) {
+			runHeadless();
+		} else {
+			runWindowed();
+		}
+	}
+
+	public void runWindowed() {
 		setup();
-		while (!w.shouldClose()) {
-			update();
+		village.enableRendering();
+
+		Thread simulation = new Thread(this::simulate, "Simulation");
+		simulation.setDaemon(true);
+		simulation.start();
+
+		while (!w.shouldClose() && simulation.isAlive()) {
 			render();
 		}
+
+		running = false;
+		try {
+			simulation.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		village.shutdown();
+		w.destroy();
+	}
+
+	private void simulate() {
+		try {
+			while (running) {
+				update();
+			}
+		} catch (RuntimeException e) {
+			Logger.error(e);
+		}
+	}
+
+	public void runHeadless() {
+		setupVillage();
+
+		long start = System.currentTimeMillis();
+		long deadline = timeBudget > 0 ? start + timeBudget : Long.MAX_VALUE;
+		int startGeneration = village.getGeneration();
+		while (System.currentTimeMillis() < deadline
+				&& (maxGenerations <= 0 || village.getGeneration() - startGeneration < maxGenerations)) {
+			update();
+		}
+		village.shutdown();
+
+		float seconds = Math.max(System.currentTimeMillis() - start, 1) / 1000.0f;
+		int generations = village.getGeneration() - startGeneration;
+		Logger.info("Headless run finished in " + seconds + "s");
+		Logger.info("Ticks: " + village.getTicks() + " (" + village.getTicks() / seconds + " ticks/sec)");
+		Logger.info("Generations: " + generations + " (" + generations / seconds + " generations/sec)");
+	}
+
+	public void runIslands() {
+		Archipelago archipelago = new Archipelago(islands, populationSize, mapSize, NUM_FOOD, migrationInterval,
+				migrants, topology, RandomStreams.split());
+		archipelago.setUp();
+
+		long start = System.currentTimeMillis();
+		long deadline = timeBudget > 0 ? start + timeBudget : Long.MAX_VALUE;
+		while (System.currentTimeMillis() < deadline
+				&& (maxGenerations <= 0 || archipelago.getGenerationsPerIsland() < maxGenerations)) {
+			int generations = migrationInterval;
+			if (maxGenerations > 0) {
+				generations = Math.min(generations, maxGenerations - archipelago.getGenerationsPerIsland());
+			}
+			archipelago.evolve(generations);
+		}
+		archipelago.shutdown();
+
+		float seconds = Math.max(System.currentTimeMillis() - start, 1) / 1000.0f;
+		Logger.info("Island run finished in " + seconds + "s on " + archipelago.getIslandCount() + " islands");
+		Logger.info("Ticks: " + archipelago.getTicks() + " (" + archipelago.getTicks() / seconds + " ticks/sec)");
+		Logger.info("Generations: " + archipelago.getGenerations() + " (" + archipelago.getGenerations() / seconds
+				+ " generations/sec)");
+	}
+
+	// Evolves the genomes generation by generation, scoring each generation in parallel episodes
+	public void runEvaluation() {
+		SplittableRandom rand = RandomStreams.split();
+		List<Entity> genomes = new ArrayList<>(evaluations);
+		for (int i = 0; i < evaluations; i++) {
+			genomes.add(new Entity(rand.split()));
+		}
+
+		BatchEvaluator evaluator = new BatchEvaluator(Runtime.getRuntime().availableProcessors(), mapSize, NUM_FOOD,
+				1, EPISODE_TICKS);
+		if (cacheSize > 0) {
+			evaluator.setCache(new FitnessCache(cacheSize));
+		}
+		evaluator.setDistanceFields(distanceFields);
+
+		// One seed for the whole run, so a genome scores the same every generation and repeats hit the cache
+		long seed = rand.nextLong();
+		long start = System.currentTimeMillis();
+		long deadline = timeBudget > 0 ? start + timeBudget : Long.MAX_VALUE;
+		int best = 0;
+		int generation = 0;
+		while (System.currentTimeMillis() < deadline && (maxGenerations <= 0 || generation < maxGenerations)) {
+			int[] fitness = evaluator.evaluate(genomes, seed);
+			for (int value : fitness) {
+				best = Math.max(best, value);
+			}
+			genomes = nextGeneration(genomes, fitness, rand);
+			generation++;
+		}
+		evaluator.shutdown();
+
+		Logger.info("Generations: " + generation);
+		Logger.info("Best Fitness: " + best);
+	}
+
+	// Carries the elite over unchanged and breeds the rest from the fitter half
+	private static List<Entity> nextGeneration(List<Entity> genomes, int[] fitness, SplittableRandom rand) {
+		Integer[] order = new Integer[genomes.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(fitness[b], fitness[a]));
+
+		List<Entity> next = new ArrayList<>(genomes.size());
+		for (int i = 0; i < Math.min(EVALUATION_ELITE, order.length); i++) {
+			next.add(new Entity(genomes.get(order[i]).getGenome(), rand.split()));
+		}
+		int parents = Math.max(order.length / 2, 1);
+		while (next.size() < genomes.size()) {
+			Entity parent1 = genomes.get(order[rand.nextInt(parents)]);
+			Entity parent2 = genomes.get(order[rand.nextInt(parents)]);
+			next.add(new Entity(parent1, parent2, rand.split()));
+		}
+		return next;
 	}
 
 	public void setup() {
 		Logger.info("Setup Start");
 
 		w = new Window(SCREEN_WIDTH, SCREEN_HEIGHT);
-
-		village = new Village(POPULATION_SIZE, MAP_SIZE, NUM_FOOD);
-		village.setUp();
+		setupVillage();
 
 		Logger.info("Setup End");
 	}
 
+	private void setupVillage() {
+		TileGrid grid = chunked ? new ChunkedTileGrid(mapSize) : new ByteTileGrid(mapSize);
+		if (steadyState) {
+			SteadyStateVillage steady = new SteadyStateVillage(populationSize, grid, NUM_FOOD, RandomStreams.split());
+			if (distanceFields) {
+				steady.enableDistanceFields();
+			}
+			village = steady;
+		} else {
+			Village generational = new Village(populationSize, grid, NUM_FOOD, RandomStreams.split());
+			generational.setAsyncLearning(asyncLearning);
+			generational.setLearnerSettings(learnerBatchSize, publishInterval);
+			generational.setBatchedInference(batched);
+			village = generational;
+		}
+		village.setParallel(parallel);
+		village.setUp();
+	}
+
 	public void update() {
 		village.update();
 	}
@@ -47,7 +347,7 @@ public class Main {
 
 	public static void main(String[] args) {
 		Logger.info("Start");
-		Main main = new Main();
+		Main main = new Main(args);
 		main.run();
 	}
 
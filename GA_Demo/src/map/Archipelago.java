@@ -0,0 +1,148 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import entities.ReinforcementEntity;
+import logging.Logger;
+
+public class Archipelago {
+
+	public enum Topology {
+		RING, FULLY_CONNECTED
+	}
+
+	private List<Village> islands;
+	private ForkJoinPool pool;
+	private Topology topology;
+	private int migrationInterval;
+	private int migrants;
+	private int epochs = 0;
+	private int generationsPerIsland = 0;
+
+	public Archipelago(int islandCount, int populationSize, int mapSize, int maxFood, int migrationInterval,
+			int migrants, Topology topology, SplittableRandom rand) {
+		this.migrationInterval = migrationInterval;
+		this.migrants = migrants;
+		this.topology = topology;
+		islands = new ArrayList<>(islandCount);
+		for (int i = 0; i < islandCount; i++) {
+			islands.add(new Village(populationSize, mapSize, maxFood, rand.split()));
+		}
+		pool = new ForkJoinPool(islandCount);
+	}
+
+	public void setUp() {
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (Village island : islands) {
+			tasks.add(() -> {
+				island.setUp();
+				return null;
+			});
+		}
+		invokeAll(tasks);
+	}
+
+	public void evolve() {
+		evolve(migrationInterval);
+	}
+
+	// Runs the given number of generations on every island, then migrates
+	public void evolve(int generations) {
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (Village island : islands) {
+			tasks.add(() -> {
+				island.runGenerations(generations);
+				return null;
+			});
+		}
+		invokeAll(tasks);
+		generationsPerIsland += generations;
+		epochs++;
+		migrate();
+		report();
+	}
+
+	private void invokeAll(List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> result : pool.invokeAll(tasks)) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Island failed", e.getCause());
+		}
+	}
+
+	private void migrate() {
+		if (islands.size() < 2) {
+			return;
+		}
+		List<List<ReinforcementEntity>> emigrants = new ArrayList<>(islands.size());
+		for (Village island : islands) {
+			emigrants.add(island.getPopulation().getFittest(migrants));
+		}
+		for (int i = 0; i < islands.size(); i++) {
+			List<ReinforcementEntity> arrivals = new ArrayList<>();
+			switch (topology) {
+			case RING:
+				addCopies(arrivals, emigrants.get((i + islands.size() - 1) % islands.size()));
+				break;
+			case FULLY_CONNECTED:
+			default:
+				for (int j = 0; j < islands.size(); j++) {
+					if (j != i) {
+						addCopies(arrivals, emigrants.get(j));
+					}
+				}
+			}
+			islands.get(i).getPopulation().replaceWeakest(arrivals);
+		}
+	}
+
+	private static void addCopies(List<ReinforcementEntity> arrivals, List<ReinforcementEntity> emigrants) {
+		for (ReinforcementEntity emigrant : emigrants) {
+			arrivals.add(new ReinforcementEntity(emigrant));
+		}
+	}
+
+	public void report() {
+		int globalBest = 0;
+		for (int i = 0; i < islands.size(); i++) {
+			Village island = islands.get(i);
+			Logger.info("Island " + i + " Best Fitness: " + island.getBestFitness());
+			globalBest = Math.max(globalBest, island.getBestFitness());
+		}
+		Logger.info("Epoch " + epochs + " Global Best Fitness: " + globalBest);
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	public int getGenerations() {
+		return generationsPerIsland * islands.size();
+	}
+
+	public long getTicks() {
+		long ticks = 0;
+		for (Village island : islands) {
+			ticks += island.getTicks();
+		}
+		return ticks;
+	}
+
+	public int getGenerationsPerIsland() {
+		return generationsPerIsland;
+	}
+
+	public int getIslandCount() {
+		return islands.size();
+	}
+}
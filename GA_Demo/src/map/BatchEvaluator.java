@@ -0,0 +1,173 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import entities.Entity;
+import logging.Logger;
+
+public class BatchEvaluator {
+
+	private static final int FOOD_DELAY = 5;
+
+	private ForkJoinPool pool;
+	private int mapSize;
+	private int maxFood;
+	private int groupSize;
+	private int maxTicks;
+	private FitnessCache cache;
+	private boolean distanceFields = false;
+
+	private long evaluations = 0;
+	private long elapsed = 0;
+
+	public BatchEvaluator(int threads, int mapSize, int maxFood, int groupSize, int maxTicks) {
+		this.mapSize = mapSize;
+		this.maxFood = maxFood;
+		this.groupSize = groupSize;
+		this.maxTicks = maxTicks;
+		pool = new ForkJoinPool(threads);
+	}
+
+	// Scores copies of the genomes, each group of groupSize sharing one map, and returns their fitness in order
+	public int[] evaluate(List<Entity> genomes, long seed) {
+		long start = System.nanoTime();
+		int[] fitness;
+		if (groupSize == 1) {
+			fitness = evaluateSolo(genomes, seed);
+		} else {
+			fitness = new int[genomes.size()];
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int first = 0; first < genomes.size(); first += groupSize) {
+				int from = first;
+				int to = Math.min(first + groupSize, genomes.size());
+				long episodeSeed = episodeSeed(seed, from / groupSize);
+				tasks.add(() -> {
+					runEpisode(genomes, from, to, episodeSeed, fitness);
+					return null;
+				});
+			}
+			invokeAll(tasks);
+		}
+
+		elapsed += System.nanoTime() - start;
+		evaluations += genomes.size();
+		Logger.info("Evaluated " + genomes.size() + " genomes (" + getEvaluationsPerSecond() + " evaluations/sec)");
+		if (cache != null) {
+			Logger.info("Fitness cache hit rate: " + cache.getHitRate() + " (" + cache.size() + " entries)");
+		}
+		return fitness;
+	}
+
+	// Solo episodes are seeded by genome so identical genomes score the same and only need running once
+	private int[] evaluateSolo(List<Entity> genomes, long seed) {
+		int[] fitness = new int[genomes.size()];
+		Map<Long, List<Integer>> pending = new HashMap<>();
+		for (int i = 0; i < genomes.size(); i++) {
+			long genome = genomes.get(i).getGenome();
+			Integer cached = cache == null ? null : cache.get(genome, seed);
+			if (cached != null) {
+				fitness[i] = cached;
+			} else {
+				pending.computeIfAbsent(genome, key -> new ArrayList<>()).add(i);
+			}
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (List<Integer> indices : pending.values()) {
+			int index = indices.get(0);
+			long genome = genomes.get(index).getGenome();
+			tasks.add(() -> {
+				runEpisode(genomes, index, index + 1, episodeSeed(seed, genome), fitness);
+				if (cache != null) {
+					cache.put(genome, seed, fitness[index]);
+				}
+				return null;
+			});
+		}
+		invokeAll(tasks);
+
+		for (List<Integer> indices : pending.values()) {
+			for (int i = 1; i < indices.size(); i++) {
+				fitness[indices.get(i)] = fitness[indices.get(0)];
+			}
+		}
+		return fitness;
+	}
+
+	private void runEpisode(List<Entity> genomes, int from, int to, long seed, int[] fitness) {
+		SplittableRandom rand = new SplittableRandom(seed);
+		TileMap map = new TileMap(mapSize, rand.split());
+		map.reset();
+		if (distanceFields) {
+			map.enableDistanceFields(Entity.VIEW_RANGE);
+		}
+
+		List<Entity> copies = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			Entity copy = new Entity(genomes.get(i).getGenome(), rand.split());
+			copies.add(copy);
+			map.spawn(copy);
+		}
+		for (int i = 0; i < maxFood; i++) {
+			map.setEmptyTile(TileType.FOOD);
+		}
+
+		int foodCounter = FOOD_DELAY;
+		for (int tick = 0; tick < maxTicks && !map.getEntities().isEmpty(); tick++) {
+			map.update();
+			foodCounter--;
+			if (foodCounter <= 0) {
+				map.setEmptyTile(TileType.FOOD);
+				foodCounter = FOOD_DELAY;
+			}
+		}
+
+		for (int i = from; i < to; i++) {
+			fitness[i] = copies.get(i - from).getFitness();
+		}
+	}
+
+	private void invokeAll(List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> result : pool.invokeAll(tasks)) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Episode failed", e.getCause());
+		}
+	}
+
+	public static long episodeSeed(long seed, long key) {
+		return new SplittableRandom(seed ^ (key * 0x9E3779B97F4A7C15L)).nextLong();
+	}
+
+	public float getEvaluationsPerSecond() {
+		return evaluations / Math.max(elapsed / 1e9f, 1e-9f);
+	}
+
+	public void setCache(FitnessCache cache) {
+		this.cache = cache;
+	}
+
+	public void setDistanceFields(boolean distanceFields) {
+		this.distanceFields = distanceFields;
+	}
+
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
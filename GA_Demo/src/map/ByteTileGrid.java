@@ -0,0 +1,50 @@
+package map;
+
+import java.util.Arrays;
+
+public class ByteTileGrid implements TileGrid {
+
+	private final byte[] cells;
+	private final int size;
+
+	public ByteTileGrid(int size) {
+		this.size = size;
+		cells = new byte[size * size];
+	}
+
+	@Override
+	public TileType getTile(int x, int y) {
+		return TileType.fromOrdinal(cells[y * size + x]);
+	}
+
+	@Override
+	public void setTile(int x, int y, TileType type) {
+		cells[y * size + x] = (byte) type.ordinal();
+	}
+
+	@Override
+	public void fill(TileType type) {
+		Arrays.fill(cells, (byte) type.ordinal());
+	}
+
+	@Override
+	public void border(TileType type) {
+		byte ordinal = (byte) type.ordinal();
+		Arrays.fill(cells, 0, size, ordinal);
+		Arrays.fill(cells, (size - 1) * size, size * size, ordinal);
+		for (int row = size; row < (size - 1) * size; row += size) {
+			cells[row] = ordinal;
+			cells[row + size - 1] = ordinal;
+		}
+	}
+
+	@Override
+	public void copyOrdinals(byte[] dest) {
+		System.arraycopy(cells, 0, dest, 0, cells.length);
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+}
@@ -0,0 +1,275 @@
+package map;
+
+import org.joml.Vector2i;
+
+public class ChunkedTileGrid implements TileGrid {
+
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int size;
+	private Chunk[] table = new Chunk[INITIAL_CAPACITY];
+	private int chunkCount = 0;
+	private TileType background = TileType.EMPTY;
+	private TileType borderType = null;
+
+	public ChunkedTileGrid(int size) {
+		this.size = size;
+	}
+
+	@Override
+	public TileType getTile(int x, int y) {
+		Chunk chunk = find(key(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT));
+		if (chunk != null) {
+			return TileType.fromOrdinal(chunk.cells[index(x, y)]);
+		}
+		return defaultTile(x, y);
+	}
+
+	@Override
+	public void setTile(int x, int y, TileType type) {
+		long key = key(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+		Chunk chunk = find(key);
+		TileType defaultType = defaultTile(x, y);
+		if (chunk == null) {
+			if (type == defaultType) {
+				return;
+			}
+			chunk = allocate(key, x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+		}
+		int index = index(x, y);
+		boolean wasDefault = chunk.cells[index] == defaultType.ordinal();
+		chunk.cells[index] = (byte) type.ordinal();
+		boolean isDefault = type == defaultType;
+		if (wasDefault && !isDefault) {
+			chunk.changed++;
+		} else if (!wasDefault && isDefault) {
+			chunk.changed--;
+			if (chunk.changed == 0) {
+				release(key);
+			}
+		}
+	}
+
+	@Override
+	public void fill(TileType type) {
+		table = new Chunk[INITIAL_CAPACITY];
+		chunkCount = 0;
+		background = type;
+		borderType = null;
+	}
+
+	@Override
+	public void border(TileType type) {
+		borderType = type;
+		Chunk[] chunks = table.clone();
+		for (Chunk chunk : chunks) {
+			if (chunk != null) {
+				recount(chunk);
+			}
+		}
+	}
+
+	private void recount(Chunk chunk) {
+		int changed = 0;
+		for (int localY = 0; localY < CHUNK_SIZE; localY++) {
+			for (int localX = 0; localX < CHUNK_SIZE; localX++) {
+				int x = (chunk.chunkX << CHUNK_SHIFT) + localX;
+				int y = (chunk.chunkY << CHUNK_SHIFT) + localY;
+				int index = (localY << CHUNK_SHIFT) | localX;
+				if (x >= size || y >= size) {
+					continue;
+				}
+				if (isBorder(x, y)) {
+					chunk.cells[index] = (byte) borderType.ordinal();
+				} else if (chunk.cells[index] != background.ordinal()) {
+					changed++;
+				}
+			}
+		}
+		chunk.changed = changed;
+		if (changed == 0) {
+			release(chunk.key);
+		}
+	}
+
+	@Override
+	public void copyOrdinals(byte[] dest) {
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				dest[y * size + x] = (byte) getTile(x, y).ordinal();
+			}
+		}
+	}
+
+	// Scans the allocated chunks, then the first unallocated chunk that can hold the type
+	@Override
+	public Vector2i findTile(TileType type) {
+		for (Chunk chunk : table) {
+			if (chunk != null) {
+				Vector2i tile = findTile(chunk.chunkX, chunk.chunkY, chunk, type);
+				if (tile != null) {
+					return tile;
+				}
+			}
+		}
+		if (type != background && type != borderType) {
+			return null;
+		}
+		int chunks = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+		for (int chunkY = 0; chunkY < chunks; chunkY++) {
+			for (int chunkX = 0; chunkX < chunks; chunkX++) {
+				if (find(key(chunkX, chunkY)) == null) {
+					Vector2i tile = findTile(chunkX, chunkY, null, type);
+					if (tile != null) {
+						return tile;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	// Unallocated chunks pass null and hold their defaults
+	private Vector2i findTile(int chunkX, int chunkY, Chunk chunk, TileType type) {
+		for (int localY = 0; localY < CHUNK_SIZE; localY++) {
+			for (int localX = 0; localX < CHUNK_SIZE; localX++) {
+				int x = (chunkX << CHUNK_SHIFT) + localX;
+				int y = (chunkY << CHUNK_SHIFT) + localY;
+				if (x >= size || y >= size) {
+					continue;
+				}
+				int index = (localY << CHUNK_SHIFT) | localX;
+				int ordinal = chunk == null ? defaultTile(x, y).ordinal() : chunk.cells[index];
+				if (ordinal == type.ordinal()) {
+					return new Vector2i(x, y);
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public boolean isSparse() {
+		return true;
+	}
+
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	private TileType defaultTile(int x, int y) {
+		if (borderType != null && isBorder(x, y)) {
+			return borderType;
+		}
+		return background;
+	}
+
+	private boolean isBorder(int x, int y) {
+		return x == 0 || y == 0 || x == size - 1 || y == size - 1;
+	}
+
+	private Chunk allocate(long key, int chunkX, int chunkY) {
+		if ((chunkCount + 1) * 2 > table.length) {
+			resize();
+		}
+		Chunk chunk = new Chunk(key, chunkX, chunkY);
+		for (int localY = 0; localY < CHUNK_SIZE; localY++) {
+			for (int localX = 0; localX < CHUNK_SIZE; localX++) {
+				int x = (chunkX << CHUNK_SHIFT) + localX;
+				int y = (chunkY << CHUNK_SHIFT) + localY;
+				chunk.cells[(localY << CHUNK_SHIFT) | localX] = (byte) defaultTile(x, y).ordinal();
+			}
+		}
+		insert(chunk);
+		chunkCount++;
+		return chunk;
+	}
+
+	private Chunk find(long key) {
+		int mask = table.length - 1;
+		for (int slot = hash(key) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+			if (table[slot].key == key) {
+				return table[slot];
+			}
+		}
+		return null;
+	}
+
+	private void insert(Chunk chunk) {
+		int mask = table.length - 1;
+		int slot = hash(chunk.key) & mask;
+		while (table[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = chunk;
+	}
+
+	private void release(long key) {
+		int mask = table.length - 1;
+		int slot = hash(key) & mask;
+		while (table[slot] != null && table[slot].key != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (table[slot] == null) {
+			return;
+		}
+		chunkCount--;
+
+		int gap = slot;
+		for (int next = (gap + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+			int home = hash(table[next].key) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				table[gap] = table[next];
+				gap = next;
+			}
+		}
+		table[gap] = null;
+	}
+
+	private void resize() {
+		Chunk[] old = table;
+		table = new Chunk[old.length * 2];
+		for (Chunk chunk : old) {
+			if (chunk != null) {
+				insert(chunk);
+			}
+		}
+	}
+
+	private static int index(int x, int y) {
+		return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+	}
+
+	private static long key(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private static class Chunk {
+		private final long key;
+		private final int chunkX;
+		private final int chunkY;
+		private final byte[] cells = new byte[CHUNK_SIZE * CHUNK_SIZE];
+		private int changed = 0;
+
+		Chunk(long key, int chunkX, int chunkY) {
+			this.key = key;
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package map;
+
+import java.util.Arrays;
+
+public class DistanceField {
+
+	public static final int NONE = -1;
+	private static final int[] NEIGHBOURS_X = { -1, 0, 1, -1, 1, -1, 0, 1 };
+	private static final int[] NEIGHBOURS_Y = { -1, -1, -1, 0, 0, 1, 1, 1 };
+	private static final int INITIAL_QUEUE = 256;
+
+	private final TileType target;
+	private final int size;
+	private final int maxDistance;
+	// The two nearest distinct target cells reaching each cell, so a target never has to count itself
+	private final int[] nearest;
+	private final int[] second;
+	private final byte[] nearestDistance;
+	private final byte[] secondDistance;
+	// Ring buffer holding the breadth first frontier, grown when a frontier outgrows it
+	private int[] queueCells = new int[INITIAL_QUEUE];
+	private int[] queueSources = new int[INITIAL_QUEUE];
+	private int head;
+	private int count;
+
+	public DistanceField(TileType target, int size, int maxDistance) {
+		this.target = target;
+		this.size = size;
+		this.maxDistance = maxDistance;
+		nearest = new int[size * size];
+		second = new int[size * size];
+		nearestDistance = new byte[size * size];
+		secondDistance = new byte[size * size];
+	}
+
+	public void rebuild(TileMap map) {
+		Arrays.fill(nearest, NONE);
+		Arrays.fill(second, NONE);
+		head = 0;
+		count = 0;
+
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (map.getTile(x, y) == target) {
+					int cell = y * size + x;
+					nearest[cell] = cell;
+					nearestDistance[cell] = 0;
+					enqueue(cell, cell);
+				}
+			}
+		}
+
+		// Breadth first, so the first two sources to reach a cell are its two nearest
+		int mask = queueCells.length - 1;
+		while (count > 0) {
+			int cell = queueCells[head];
+			int source = queueSources[head];
+			head = (head + 1) & mask;
+			count--;
+			int distance = nearest[cell] == source ? nearestDistance[cell] : secondDistance[cell];
+			if (distance >= maxDistance - 1) {
+				continue;
+			}
+			int x = cell % size;
+			int y = cell / size;
+			for (int i = 0; i < NEIGHBOURS_X.length; i++) {
+				int nextX = x + NEIGHBOURS_X[i];
+				int nextY = y + NEIGHBOURS_Y[i];
+				if (map.outOfRange(nextX, nextY)) {
+					continue;
+				}
+				TileType type = map.getTile(nextX, nextY);
+				if (type != TileType.EMPTY && type != TileType.FOOD) {
+					continue;
+				}
+				int next = nextY * size + nextX;
+				if (offer(next, source, distance + 1)) {
+					enqueue(next, source);
+					mask = queueCells.length - 1;
+				}
+			}
+		}
+	}
+
+	private void enqueue(int cell, int source) {
+		if (count == queueCells.length) {
+			grow();
+		}
+		int slot = (head + count) & (queueCells.length - 1);
+		queueCells[slot] = cell;
+		queueSources[slot] = source;
+		count++;
+	}
+
+	// Unrolls the ring into a buffer twice the size, oldest entry first
+	private void grow() {
+		int[] cells = new int[queueCells.length * 2];
+		int[] sources = new int[queueSources.length * 2];
+		for (int i = 0; i < count; i++) {
+			int slot = (head + i) & (queueCells.length - 1);
+			cells[i] = queueCells[slot];
+			sources[i] = queueSources[slot];
+		}
+		queueCells = cells;
+		queueSources = sources;
+		head = 0;
+	}
+
+	private boolean offer(int cell, int source, int distance) {
+		if (nearest[cell] == source || second[cell] == source) {
+			return false;
+		}
+		if (nearest[cell] == NONE) {
+			nearest[cell] = source;
+			nearestDistance[cell] = (byte) distance;
+		} else if (second[cell] == NONE) {
+			second[cell] = source;
+			secondDistance[cell] = (byte) distance;
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	// Returns the neighbouring cell, packed as y * size + x, one step closer to the nearest target other than
+	// the excluded cell, or NONE if no target is within range
+	public int firstStep(int x, int y, int excluded) {
+		int best = NONE;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < NEIGHBOURS_X.length; i++) {
+			int nextX = x + NEIGHBOURS_X[i];
+			int nextY = y + NEIGHBOURS_Y[i];
+			if (inRange(nextX, nextY)) {
+				int next = nextY * size + nextX;
+				int distance = Integer.MAX_VALUE;
+				if (nearest[next] != NONE && nearest[next] != excluded) {
+					distance = nearestDistance[next];
+				} else if (second[next] != NONE && second[next] != excluded) {
+					distance = secondDistance[next];
+				}
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					best = next;
+				}
+			}
+		}
+		return best;
+	}
+
+	private boolean inRange(int x, int y) {
+		return x >= 0 && y >= 0 && x < size && y < size;
+	}
+
+	public TileType getTarget() {
+		return target;
+	}
+}
@@ -0,0 +1,78 @@
+package map;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class FitnessCache {
+
+	private Map<Key, Integer> entries;
+	private long hits = 0;
+	private long misses = 0;
+
+	public FitnessCache(int capacity) {
+		entries = new LinkedHashMap<Key, Integer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	// Returns the cached fitness of a genome evaluated with the given seed, or null
+	public synchronized Integer get(long genome, long seed) {
+		Integer fitness = entries.get(new Key(genome, seed));
+		if (fitness == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return fitness;
+	}
+
+	public synchronized void put(long genome, long seed, int fitness) {
+		entries.put(new Key(genome, seed), fitness);
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized float getHitRate() {
+		return hits + misses == 0 ? 0 : (float) hits / (hits + misses);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private static final class Key {
+
+		private final long genome;
+		private final long seed;
+
+		private Key(long genome, long seed) {
+			this.genome = genome;
+			this.seed = seed;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return genome == key.genome && seed == key.seed;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(genome * 31 + seed);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package map;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class FreeCells {
+
+	private static final int ABSENT = -1;
+
+	private final int[] cells;
+	private final int[] slots;
+	private final int size;
+	private int count = 0;
+
+	public FreeCells(int size) {
+		this.size = size;
+		cells = new int[size * size];
+		slots = new int[size * size];
+		Arrays.fill(slots, ABSENT);
+	}
+
+	public void add(int x, int y) {
+		int cell = y * size + x;
+		if (slots[cell] == ABSENT) {
+			slots[cell] = count;
+			cells[count++] = cell;
+		}
+	}
+
+	public void remove(int x, int y) {
+		int cell = y * size + x;
+		int slot = slots[cell];
+		if (slot != ABSENT) {
+			int last = cells[--count];
+			cells[slot] = last;
+			slots[last] = slot;
+			slots[cell] = ABSENT;
+		}
+	}
+
+	public void rebuild(TileGrid grid) {
+		clear();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (grid.getTile(x, y) == TileType.EMPTY) {
+					add(x, y);
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			slots[cells[i]] = ABSENT;
+		}
+		count = 0;
+	}
+
+	// Returns a packed cell index y * size + x
+	public int sample(SplittableRandom rand) {
+		return cells[rand.nextInt(count)];
+	}
+
+	public boolean contains(int x, int y) {
+		return slots[y * size + x] != ABSENT;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public int size() {
+		return count;
+	}
+}
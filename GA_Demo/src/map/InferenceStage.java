@@ -0,0 +1,74 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import entities.Agent;
+import entities.BatchedAgent;
+import entities.PackedState;
+import entities.Policy;
+
+// Gathers the states of every agent sharing a policy into one matrix and runs a single forward pass per policy
+class InferenceStage {
+
+	private Map<Policy, List<BatchedAgent>> groups = new IdentityHashMap<>();
+	// Shared by every group and both phases, grown to the largest group seen so far
+	private float[] features = new float[0];
+	private float[] q = new float[0];
+	private float[] targetQ = new float[0];
+
+	void act(TileMap map, List<Agent> agents) {
+		group(agents, false);
+		for (Entry<Policy, List<BatchedAgent>> entry : groups.entrySet()) {
+			List<BatchedAgent> group = entry.getValue();
+			ensureCapacity(group.size());
+			for (int i = 0; i < group.size(); i++) {
+				group.get(i).writeState(map, features, i * PackedState.FEATURES);
+			}
+			entry.getKey().output(features, group.size(), q);
+			for (int i = 0; i < group.size(); i++) {
+				group.get(i).setQValues(q, i * Policy.ACTIONS);
+			}
+		}
+	}
+
+	void learn(TileMap map, List<Agent> agents) {
+		group(agents, true);
+		for (Entry<Policy, List<BatchedAgent>> entry : groups.entrySet()) {
+			List<BatchedAgent> group = entry.getValue();
+			ensureCapacity(group.size());
+			for (int i = 0; i < group.size(); i++) {
+				group.get(i).writeNextState(map, features, i * PackedState.FEATURES);
+			}
+			entry.getKey().evaluate(features, group.size(), q, targetQ);
+			for (int i = 0; i < group.size(); i++) {
+				group.get(i).setNextQValues(q, targetQ, i * Policy.ACTIONS);
+			}
+		}
+	}
+
+	private void ensureCapacity(int rows) {
+		if (features.length < rows * PackedState.FEATURES) {
+			int capacity = Math.max(rows, features.length / PackedState.FEATURES * 2);
+			features = new float[capacity * PackedState.FEATURES];
+			q = new float[capacity * Policy.ACTIONS];
+			targetQ = new float[capacity * Policy.ACTIONS];
+		}
+	}
+
+	private void group(List<Agent> agents, boolean learning) {
+		groups.clear();
+		for (Agent agent : agents) {
+			if (!(agent instanceof BatchedAgent)) {
+				continue;
+			}
+			BatchedAgent batched = (BatchedAgent) agent;
+			if (learning ? batched.needsNextState() : batched.needsState()) {
+				groups.computeIfAbsent(batched.getPolicy(), policy -> new ArrayList<>()).add(batched);
+			}
+		}
+	}
+}
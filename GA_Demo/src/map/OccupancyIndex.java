@@ -0,0 +1,121 @@
+package map;
+
+import java.util.Arrays;
+
+public class OccupancyIndex {
+
+	public static final int NONE = -1;
+	private static final long FREE = -1L;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] keys;
+	private int[] ids;
+	private int count = 0;
+
+	public OccupancyIndex() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		ids = new int[capacity];
+		Arrays.fill(keys, FREE);
+	}
+
+	public int get(int x, int y) {
+		long key = key(x, y);
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return ids[slot];
+			}
+		}
+		return NONE;
+	}
+
+	public void put(int x, int y, int id) {
+		if ((count + 1) * 2 > keys.length) {
+			resize();
+		}
+		insert(key(x, y), id);
+	}
+
+	public int remove(int x, int y) {
+		long key = key(x, y);
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != key) {
+			if (keys[slot] == FREE) {
+				return NONE;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int id = ids[slot];
+		count--;
+
+		// Shift later entries of the probe chain back so lookups never stop early
+		int gap = slot;
+		for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				ids[gap] = ids[next];
+				gap = next;
+			}
+		}
+		keys[gap] = FREE;
+		return id;
+	}
+
+	public void move(int fromX, int fromY, int toX, int toY) {
+		int id = remove(fromX, fromY);
+		if (id != NONE) {
+			put(toX, toY, id);
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		count = 0;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	private void insert(long key, int id) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != FREE && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == FREE) {
+			count++;
+		}
+		keys[slot] = key;
+		ids[slot] = id;
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldIds = ids;
+		allocate(oldKeys.length * 2);
+		count = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				insert(oldKeys[i], oldIds[i]);
+			}
+		}
+	}
+
+	private static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
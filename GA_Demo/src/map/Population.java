@@ -3,46 +3,103 @@ package map;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
+import entities.Policy;
 import entities.ReinforcementEntity;
 import logging.Logger;
 import logging.Logger.Category;
+import selection.TruncationSelection;
 
 public class Population {
 
 	private List<ReinforcementEntity> entities;
 	private int size;
+	private SplittableRandom rand;
+	private boolean sharedPolicy = false;
+	private Policy policy;
+	private TruncationSelection<ReinforcementEntity> truncation = new TruncationSelection<>();
 
-	public Population(int size) {
+	// Generation stats, recorded as each entity dies
+	private ReinforcementEntity best;
+	private long totalFitness = 0;
+	private int recorded = 0;
+
+	public Population(int size, SplittableRandom rand) {
 		this.size = size;
+		this.rand = rand;
 		entities = new ArrayList<>(size);
 	}
 
 	public void init() {
+		policy = sharedPolicy ? new Policy() : null;
 		for (int i = 0; i < size; i++) {
-			entities.add(new ReinforcementEntity());
+			entities.add(sharedPolicy ? new ReinforcementEntity(rand.split(), policy)
+					: new ReinforcementEntity(rand.split()));
 		}
 	}
 
-	public ReinforcementEntity getFittest() {
-		ReinforcementEntity bestEntity;
-		Collections.sort(entities);
-		bestEntity = entities.get(0);
+	// All entities created by init use one policy network, so their inference can be batched
+	public void setSharedPolicy(boolean sharedPolicy) {
+		this.sharedPolicy = sharedPolicy;
+	}
+
+	public void resetStats() {
+		best = null;
+		totalFitness = 0;
+		recorded = 0;
+	}
+
+	public void record(ReinforcementEntity entity) {
+		if (best == null || entity.getFitness() > best.getFitness()) {
+			best = entity;
+		}
+		totalFitness += entity.getFitness();
+		recorded++;
+	}
+
+	private boolean isRecorded() {
+		return recorded > 0 && recorded == entities.size();
+	}
 
+	public ReinforcementEntity getFittest() {
+		if (isRecorded()) {
+			return best;
+		}
+		ReinforcementEntity bestEntity = entities.get(0);
+		for (ReinforcementEntity entity : entities) {
+			if (entity.getFitness() > bestEntity.getFitness()) {
+				bestEntity = entity;
+			}
+		}
 		return bestEntity;
 	}
 
 	public List<ReinforcementEntity> getFittestArray() {
-		List<ReinforcementEntity> fittest = new ArrayList<>();
+		return getFittest(entities.size() / 2);
+	}
+
+	public List<ReinforcementEntity> getFittest(int count) {
+		return truncation.select(entities, count, rand);
+	}
+
+	public void replaceWeakest(List<ReinforcementEntity> migrants) {
+		List<ReinforcementEntity> arrivals = new ArrayList<>(migrants);
+		Collections.sort(arrivals);
 		Collections.sort(entities);
-		int halfPopulationSize = entities.size() / 2;
-		for (int i = 0; i < halfPopulationSize; i++) {
-			fittest.add(entities.remove(0));
+		int replacements = Math.min(arrivals.size(), Math.max(entities.size() / 2, 1));
+		for (int i = 0; i < replacements; i++) {
+			int weakest = entities.size() - 1 - i;
+			if (arrivals.get(i).getFitness() > entities.get(weakest).getFitness()) {
+				entities.set(weakest, arrivals.get(i));
+			}
 		}
-		return fittest;
 	}
 
 	public float averageFitness() {
+		if (isRecorded()) {
+			return (float) totalFitness / recorded;
+		}
 		float averageFitness = 0.0f;
 		for (ReinforcementEntity entity : entities) {
 			averageFitness += entity.getFitness();
@@ -51,6 +108,11 @@ public class Population {
 		return averageFitness;
 	}
 
+	// The policy shared by every entity, or null when each has its own
+	public Policy getPolicy() {
+		return policy;
+	}
+
 	public int getSize() {
 		return size;
 	}
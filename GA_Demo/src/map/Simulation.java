@@ -0,0 +1,23 @@
+package map;
+
+import display.Window;
+
+public interface Simulation {
+
+	void setUp();
+
+	void setParallel(boolean parallel);
+
+	void update();
+
+	void enableRendering();
+
+	void render(Window w);
+
+	int getGeneration();
+
+	long getTicks();
+
+	default void shutdown() {
+	}
+}
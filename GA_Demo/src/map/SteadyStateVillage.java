@@ -0,0 +1,168 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.joml.Vector2i;
+
+import display.Window;
+import entities.Agent;
+import entities.Entity;
+import logging.Logger;
+import selection.Selection;
+import selection.TournamentSelection;
+
+// Breeds a replacement from the elite as soon as an entity dies, instead of waiting for a whole generation
+public class SteadyStateVillage implements Simulation {
+
+	private static final int FOOD_DELAY = 5;
+	private static final int ELITE_SIZE = 10;
+	private static final int TOURNAMENT_SIZE = 3;
+
+	private int populationSize;
+	private int maxFood;
+	private TileMap map;
+	private SplittableRandom rand;
+	private TileBuffer tileBuffer;
+
+	// Fittest dead entities of the whole run, fittest first. Parents can be long dead, which is intended:
+	// the archive is the run's only memory of good genomes once they leave the map
+	private List<Entity> elite = new ArrayList<>(ELITE_SIZE + 1);
+	private Selection<Entity> selection = new TournamentSelection<>(TOURNAMENT_SIZE);
+	private int pendingBirths = 0;
+
+	private int foodCounter = FOOD_DELAY;
+	private long ticks = 0;
+	private long births = 0;
+	private int bestFitness = 0;
+
+	public SteadyStateVillage(int populationSize, TileGrid grid, int maxFood, SplittableRandom rand) {
+		this.populationSize = populationSize;
+		this.maxFood = maxFood;
+		this.rand = rand;
+		map = new TileMap(grid, rand.split());
+		map.setDeathListener(this::onDeath);
+	}
+
+	@Override
+	public void setUp() {
+		map.reset();
+		elite.clear();
+		pendingBirths = 0;
+		for (int i = 0; i < populationSize; i++) {
+			map.spawn(new Entity(rand.split()));
+		}
+		for (int i = 0; i < maxFood; i++) {
+			map.setEmptyTile(TileType.FOOD);
+		}
+		publish();
+	}
+
+	@Override
+	public void setParallel(boolean parallel) {
+		map.setParallel(parallel);
+	}
+
+	@Override
+	public void update() {
+		ticks++;
+		map.update();
+
+		// Births wait until the update pass is over, the map is not safe to spawn into while compacting
+		// A child is only bred once there is a cell for it, so a full map does not draw from rand
+		while (pendingBirths > 0) {
+			Vector2i tile = map.getEmptyTile();
+			if (tile == null) {
+				break;
+			}
+			map.spawn(breed(), tile);
+			pendingBirths--;
+			births++;
+			if (births % populationSize == 0) {
+				report();
+			}
+		}
+
+		foodCounter--;
+		if (foodCounter <= 0) {
+			map.setEmptyTile(TileType.FOOD);
+			foodCounter = FOOD_DELAY;
+		}
+		publish();
+	}
+
+	private void onDeath(Agent agent) {
+		Entity entity = (Entity) agent;
+		bestFitness = Math.max(bestFitness, entity.getFitness());
+		int index = elite.size();
+		while (index > 0 && elite.get(index - 1).getFitness() < entity.getFitness()) {
+			index--;
+		}
+		if (index < ELITE_SIZE) {
+			elite.add(index, entity);
+			if (elite.size() > ELITE_SIZE) {
+				elite.remove(ELITE_SIZE);
+			}
+		}
+		pendingBirths++;
+	}
+
+	private Entity breed() {
+		if (elite.size() < 2) {
+			return new Entity(rand.split());
+		}
+		List<Entity> parents = selection.select(elite, 2, rand);
+		return new Entity(parents.get(0), parents.get(1), rand.split());
+	}
+
+	public void report() {
+		float eliteFitness = 0;
+		for (Entity entity : elite) {
+			eliteFitness += entity.getFitness();
+		}
+		Logger.info("Births: " + births + " Best Fitness: " + bestFitness + " Elite Average Fitness: "
+				+ eliteFitness / Math.max(elite.size(), 1));
+	}
+
+	// Entities path find to food and each other instead of scanning their view
+	public void enableDistanceFields() {
+		map.enableDistanceFields(Entity.VIEW_RANGE);
+	}
+
+	@Override
+	public void enableRendering() {
+		tileBuffer = new TileBuffer(map.getSize());
+		publish();
+	}
+
+	private void publish() {
+		if (tileBuffer != null) {
+			tileBuffer.publish(map);
+		}
+	}
+
+	@Override
+	public void render(Window w) {
+		tileBuffer.render(w);
+	}
+
+	// Counts one generation for every populationSize births
+	@Override
+	public int getGeneration() {
+		return (int) (births / populationSize) + 1;
+	}
+
+	@Override
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getBirths() {
+		return births;
+	}
+
+	public int getBestFitness() {
+		return bestFitness;
+	}
+}
@@ -0,0 +1,49 @@
+package map;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import display.Window;
+
+public class TileBuffer {
+
+	private static final int INDEX_MASK = 3;
+	private static final int FRESH = 4;
+
+	private final byte[][] buffers;
+	private final AtomicInteger middle = new AtomicInteger(2);
+	private int back = 0;
+	private int front = 1;
+	private final int size;
+
+	public TileBuffer(int size) {
+		this.size = size;
+		buffers = new byte[3][size * size];
+		for (byte[] buffer : buffers) {
+			Arrays.fill(buffer, (byte) TileType.EMPTY.ordinal());
+		}
+	}
+
+	// Simulation thread only
+	public void publish(TileMap map) {
+		map.copyTiles(buffers[back]);
+		back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+	}
+
+	// Render thread only
+	public byte[] latest() {
+		if ((middle.get() & FRESH) != 0) {
+			front = middle.getAndSet(front) & INDEX_MASK;
+		}
+		return buffers[front];
+	}
+
+	public void render(Window w) {
+		byte[] tiles = latest();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				w.renderTile(x, y, size, TileType.fromOrdinal(tiles[y * size + x]));
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package map;
+
+import org.joml.Vector2i;
+
+public interface TileGrid {
+
+	TileType getTile(int x, int y);
+
+	void setTile(int x, int y, TileType type);
+
+	void fill(TileType type);
+
+	void border(TileType type);
+
+	// Row-major tile ordinals, index y * size + x
+	void copyOrdinals(byte[] dest);
+
+	int getSize();
+
+	// Some cell holding the type, or null if there is none
+	default Vector2i findTile(TileType type) {
+		int size = getSize();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (getTile(x, y) == type) {
+					return new Vector2i(x, y);
+				}
+			}
+		}
+		return null;
+	}
+
+	// Sparse grids are too large to track every free cell
+	default boolean isSparse() {
+		return false;
+	}
+}
@@ -1,115 +1,336 @@
 package map;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Random;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.joml.Vector2i;
 
 import display.Window;
+import entities.Agent;
 import entities.ReinforcementEntity;
 import logging.Logger;
 import logging.Logger.Category;
+import random.RandomStreams;
 
 public class TileMap {
 
-	private Set<ReinforcementEntity> livingEntities;
-	private TileType[][] tiles;
+	private static final int MAX_EMPTY_SAMPLES = 64;
+
+	private List<Agent> livingEntities;
+	private List<Agent> registry;
+	// Ids of removed entities, reused by later spawns so the registry stays as large as the peak population
+	private int[] freeIds = new int[16];
+	private int freeIdCount = 0;
+	private OccupancyIndex occupancy;
+	private FreeCells freeCells;
+	private SplittableRandom rand;
+	private TileGrid grid;
 	private int size;
+	private boolean parallel = false;
+	private DistanceField[] distanceFields;
+	// Set by any tile change, the fields are only rebuilt on ticks that follow one
+	private boolean fieldsDirty = true;
+	private Consumer<Agent> deathListener;
+	private InferenceStage inference;
 
 	public TileMap(int size) {
-		this.size = size;
-		livingEntities = new HashSet<>();
-		tiles = new TileType[size][size];
+		this(new ByteTileGrid(size), RandomStreams.split());
+	}
+
+	public TileMap(int size, SplittableRandom rand) {
+		this(new ByteTileGrid(size), rand);
+	}
+
+	public TileMap(TileGrid grid, SplittableRandom rand) {
+		this.grid = grid;
+		this.rand = rand;
+		size = grid.getSize();
+		livingEntities = new ArrayList<>();
+		registry = new ArrayList<>();
+		occupancy = new OccupancyIndex();
+		if (!grid.isSparse()) {
+			freeCells = new FreeCells(size);
+		}
 	}
 
 	public void reset() {
-		for (int y = 0; y < size; y++) {
-			for (int x = 0; x < size; x++) {
-				if ((x == 0 || x == size - 1) || (y == 0 || y == size - 1)) {
-					tiles[x][y] = TileType.WALL;
-				} else {
-					tiles[x][y] = TileType.EMPTY;
-				}
-			}
+		grid.fill(TileType.EMPTY);
+		fieldsDirty = true;
+		grid.border(TileType.WALL);
+		registry.clear();
+		freeIdCount = 0;
+		occupancy.clear();
+		if (freeCells != null) {
+			freeCells.rebuild(grid);
 		}
 	}
 
 	public void spawnPopulation(Population population) {
 		for (ReinforcementEntity entity : population.getEntities()) {
-			Vector2i emptyTileLoc = getEmptyTile();
-			entity.setPosition(emptyTileLoc);
-			setTile(emptyTileLoc, TileType.ENTITY);
-			livingEntities.add(entity);
-			entity.reset();
+			spawn(entity);
 		}
 	}
 
+	public void spawn(Agent entity) {
+		if (!trySpawn(entity)) {
+			throw new IllegalStateException("Map full, cannot spawn population");
+		}
+	}
+
+	// Spawns the entity on a random empty tile, returns false if there are none
+	public boolean trySpawn(Agent entity) {
+		Vector2i emptyTileLoc = getEmptyTile();
+		if (emptyTileLoc == null) {
+			return false;
+		}
+		spawn(entity, emptyTileLoc);
+		return true;
+	}
+
+	// Spawns the entity on a tile from getEmptyTile
+	public void spawn(Agent entity, Vector2i emptyTileLoc) {
+		entity.setPosition(emptyTileLoc);
+		setTile(emptyTileLoc, TileType.ENTITY);
+		if (freeIdCount > 0) {
+			int id = freeIds[--freeIdCount];
+			registry.set(id, entity);
+			occupancy.put(emptyTileLoc.x(), emptyTileLoc.y(), id);
+		} else {
+			occupancy.put(emptyTileLoc.x(), emptyTileLoc.y(), registry.size());
+			registry.add(entity);
+		}
+		livingEntities.add(entity);
+		entity.reset();
+	}
+
 	public Vector2i getEmptyTile() {
-		Random rand = new Random();
-		int x;
-		int y;
+		if (freeCells == null) {
+			return sampleEmptyTile();
+		}
+		if (freeCells.isEmpty()) {
+			return null;
+		}
+		int cell = freeCells.sample(rand);
+		return new Vector2i(cell % size, cell / size);
+	}
 
-		do {
-			x = rand.nextInt(size);
-			y = rand.nextInt(size);
-		} while (!getTile(x, y).equals(TileType.EMPTY));
-		return new Vector2i(x, y);
+	// Random probes find a cell quickly on a mostly empty map, the grid is only searched when they all miss
+	private Vector2i sampleEmptyTile() {
+		for (int i = 0; i < MAX_EMPTY_SAMPLES; i++) {
+			int x = rand.nextInt(size);
+			int y = rand.nextInt(size);
+			if (getTile(x, y) == TileType.EMPTY) {
+				return new Vector2i(x, y);
+			}
+		}
+		return grid.findTile(TileType.EMPTY);
 	}
 
 	public void update() {
-		for (Iterator<ReinforcementEntity> iter = livingEntities.iterator(); iter.hasNext();) {
-			ReinforcementEntity entity = iter.next();
+		if (distanceFields != null && fieldsDirty) {
+			fieldsDirty = false;
+			for (DistanceField field : distanceFields) {
+				if (field != null) {
+					field.rebuild(this);
+				}
+			}
+		}
+		if (parallel || inference != null) {
+			updatePhased();
+			return;
+		}
+		int living = 0;
+		for (int i = 0; i < livingEntities.size(); i++) {
+			Agent entity = livingEntities.get(i);
 			if (!entity.isDead()) {
 				entity.update(this);
 			}
 			if (entity.isDead()) {
-				setTile(entity.getPosition(), TileType.EMPTY);
-				iter.remove();
+				removeEntity(entity);
+			} else {
+				livingEntities.set(living++, entity);
 			}
 		}
+		truncateEntities(living);
 	}
 
-	public void killEntity(Vector2i entityPosition) {
-		for (Iterator<ReinforcementEntity> iter = livingEntities.iterator(); iter.hasNext();) {
-			ReinforcementEntity entity = iter.next();
-			if (entityPosition.equals(entity.getPosition())) {
-				entity.kill();
+	private void updatePhased() {
+		if (inference != null) {
+			inference.act(this, livingEntities);
+		}
+		stream().forEach(entity -> {
+			if (!entity.isDead()) {
+				entity.decide(this);
+			}
+		});
+		for (Agent entity : livingEntities) {
+			if (!entity.isDead()) {
+				entity.resolve(this);
+			}
+		}
+		if (inference != null) {
+			inference.learn(this, livingEntities);
+		}
+		stream().forEach(entity -> entity.observe(this));
+
+		int living = 0;
+		for (int i = 0; i < livingEntities.size(); i++) {
+			Agent entity = livingEntities.get(i);
+			if (entity.isDead()) {
+				removeEntity(entity);
+			} else {
+				livingEntities.set(living++, entity);
+			}
+		}
+		truncateEntities(living);
+	}
+
+	private Stream<Agent> stream() {
+		return parallel ? livingEntities.parallelStream() : livingEntities.stream();
+	}
+
+	private void removeEntity(Agent entity) {
+		setTile(entity.getPosition(), TileType.EMPTY);
+		int id = occupancy.remove(entity.getPosition().x(), entity.getPosition().y());
+		if (id != OccupancyIndex.NONE) {
+			registry.set(id, null);
+			if (freeIdCount == freeIds.length) {
+				freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
 			}
+			freeIds[freeIdCount++] = id;
+		}
+		if (deathListener != null) {
+			deathListener.accept(entity);
+		}
+	}
+
+	private void truncateEntities(int living) {
+		for (int i = livingEntities.size() - 1; i >= living; i--) {
+			livingEntities.remove(i);
+		}
+	}
+
+	public void killEntity(Vector2i entityPosition) {
+		killEntity(entityPosition.x(), entityPosition.y());
+	}
+
+	public void killEntity(int x, int y) {
+		Agent entity = getEntity(x, y);
+		if (entity != null) {
+			entity.kill();
 		}
 		Logger.debug("Entity Killed", Category.ENTITIES);
 	}
 
-	public void setEmptyTile(TileType type) {
+	public Agent getEntity(int x, int y) {
+		int id = occupancy.get(x, y);
+		return id == OccupancyIndex.NONE ? null : registry.get(id);
+	}
+
+	public void moveEntity(Vector2i from, int toX, int toY) {
+		setTile(from, TileType.EMPTY);
+		setTile(toX, toY, TileType.ENTITY);
+		occupancy.move(from.x(), from.y(), toX, toY);
+	}
+
+	public boolean setEmptyTile(TileType type) {
 		Vector2i emptyTile = getEmptyTile();
-		tiles[emptyTile.x()][emptyTile.y()] = type;
+		if (emptyTile == null) {
+			Logger.debug("Map full", Category.SYSTEM);
+			return false;
+		}
+		setTile(emptyTile, type);
+		return true;
 	}
 
 	public TileType getTile(int x, int y) {
-		return tiles[x][y];
+		return grid.getTile(x, y);
 	}
 
 	public void setTile(int x, int y, TileType type) {
-		tiles[x][y] = type;
+		TileType previous = grid.getTile(x, y);
+		grid.setTile(x, y, type);
+		if (previous != type) {
+			fieldsDirty = true;
+		}
+		if (freeCells == null) {
+			return;
+		}
+		if (type == TileType.EMPTY) {
+			if (previous != TileType.EMPTY) {
+				freeCells.add(x, y);
+			}
+		} else if (previous == TileType.EMPTY) {
+			freeCells.remove(x, y);
+		}
 	}
 
 	public void setTile(Vector2i tile, TileType type) {
 		setTile(tile.x(), tile.y(), type);
 	}
 
-	public TileType[][] getTiles() {
-		return tiles;
+	public TileGrid getGrid() {
+		return grid;
+	}
+
+	public void copyTiles(byte[] dest) {
+		grid.copyOrdinals(dest);
+	}
+
+	public int getSize() {
+		return size;
 	}
 
-	public Set<ReinforcementEntity> getEntities() {
+	public List<Agent> getEntities() {
 		return livingEntities;
 	}
 
+	// The tracked empty cells, null on a sparse grid
+	public FreeCells getFreeCells() {
+		return freeCells;
+	}
+
+	public int getRegistrySize() {
+		return registry.size();
+	}
+
+	// Called on the updating thread for each dead entity as it is removed from the map
+	public void setDeathListener(Consumer<Agent> deathListener) {
+		this.deathListener = deathListener;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	// Evaluates every batched agent's policy once per phase for all agents sharing it
+	public void setBatchedInference(boolean batched) {
+		inference = batched ? new InferenceStage() : null;
+	}
+
+	// Rebuilds FOOD and ENTITY distance fields at the start of every tick, for dense flat grids only
+	public void enableDistanceFields(int range) {
+		if (grid.isSparse()) {
+			throw new IllegalStateException("Distance fields need a flat grid");
+		}
+		distanceFields = new DistanceField[TileType.values().length];
+		distanceFields[TileType.FOOD.ordinal()] = new DistanceField(TileType.FOOD, size, range);
+		distanceFields[TileType.ENTITY.ordinal()] = new DistanceField(TileType.ENTITY, size, range);
+		fieldsDirty = true;
+	}
+
+	public DistanceField getDistanceField(TileType type) {
+		return distanceFields == null ? null : distanceFields[type.ordinal()];
+	}
+
 	public void render(Window w) {
 		for (int y = 0; y < size; y++) {
 			for (int x = 0; x < size; x++) {
-				w.renderTile(x, y, size, tiles[x][y]);
+				w.renderTile(x, y, size, grid.getTile(x, y));
 			}
 		}
 	}
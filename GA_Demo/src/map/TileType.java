@@ -3,6 +3,8 @@ import org.joml.Vector3f;
 public enum TileType {
 	EMPTY(1.0f,1.0f,1.0f), WALL(0.0f,0.0f,0.0f), ENTITY(0.0f,0.0f,0.5f), FOOD(0.5f,0.0f,0.0f);
 	
+	private static final TileType[] VALUES = values();
+	
 	private final Vector3f color;
 	
 	TileType(final float r,final float g,final float b) {
@@ -12,4 +14,9 @@ public enum TileType {
 	public Vector3f getColor() {
 		return color;
 	}
+	
+	public static TileType fromOrdinal(int ordinal) {
+		return VALUES[ordinal];
+	}
 }
+
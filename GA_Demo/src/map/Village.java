@@ -1,43 +1,109 @@
 
 package map;
 
+import java.util.SplittableRandom;
+
 import display.Window;
+import entities.AsyncLearner;
 import entities.ReinforcementEntity;
 import logging.Logger;
 import logging.Logger.Category;
+import random.RandomStreams;
 
-public class Village {
+public class Village implements Simulation {
 
 	private int maxFood;
 
 	private Population population;
 	private ReinforcementEntity fittestEntity;
 	private float fittestGeneration = 0;
+	private int bestFitness = 0;
 
 	private int generation = 1;
 	private int time = 0;
+	private long ticks = 0;
+	private boolean generationOver = false;
 
 	private TileMap map;
+	private TileBuffer tileBuffer;
+
+	private boolean asyncLearning = false;
+	private AsyncLearner learner;
+	private SplittableRandom learnerRand;
+	private int learnerBatchSize = DEFAULT_LEARNER_BATCH_SIZE;
+	private int publishInterval = DEFAULT_PUBLISH_INTERVAL;
 
 	private static final int FOOD_DELAY = 5;
+	public static final int DEFAULT_LEARNER_BATCH_SIZE = 2048;
+	public static final int DEFAULT_PUBLISH_INTERVAL = 4;
 	private int foodCounter = FOOD_DELAY;
 
 	private int moveCounter = 0;
 	private static final int MOVE_DELAY = 1;
 
 	public Village(int populationSize, int mapSize, int maxFood) {
+		this(populationSize, mapSize, maxFood, RandomStreams.split());
+	}
+
+	public Village(int populationSize, int mapSize, int maxFood, SplittableRandom rand) {
+		this(populationSize, new ByteTileGrid(mapSize), maxFood, rand);
+	}
+
+	public Village(int populationSize, TileGrid grid, int maxFood, SplittableRandom rand) {
 		this.maxFood = maxFood;
-		map = new TileMap(mapSize);
-		population = new Population(populationSize);
+		map = new TileMap(grid, rand.split());
+		population = new Population(populationSize, rand.split());
+		learnerRand = rand.split();
+		map.setDeathListener(entity -> population.record((ReinforcementEntity) entity));
 	}
 
+	@Override
 	public void setUp() {
 		map.reset();
 
 		population.init();
+		if (asyncLearning) {
+			learner = new AsyncLearner(population.getPolicy(), learnerBatchSize, publishInterval, learnerRand);
+			learner.start();
+		}
+		population.resetStats();
 		map.spawnPopulation(population);
 
 		createInitialFood();
+		publish();
+	}
+
+	@Override
+	public void setParallel(boolean parallel) {
+		map.setParallel(parallel);
+	}
+
+	// Must be set before setUp, the shared policy is created with the population
+	public void setBatchedInference(boolean batched) {
+		population.setSharedPolicy(batched || asyncLearning);
+		map.setBatchedInference(batched);
+	}
+
+	// Trains the shared policy on a learner thread instead of between generations, must be set before setUp
+	public void setAsyncLearning(boolean asyncLearning) {
+		this.asyncLearning = asyncLearning;
+		if (asyncLearning) {
+			population.setSharedPolicy(true);
+		}
+	}
+
+	// Transitions per learner fit, and fits between parameter publishes, must be set before setUp
+	public void setLearnerSettings(int batchSize, int publishInterval) {
+		this.learnerBatchSize = batchSize;
+		this.publishInterval = publishInterval;
+	}
+
+	@Override
+	public void shutdown() {
+		if (learner != null) {
+			learner.report();
+			learner.stop();
+		}
 	}
 
 	public void createInitialFood() {
@@ -46,23 +112,28 @@ public class Village {
 		}
 	}
 
+	@Override
+	public void enableRendering() {
+		tileBuffer = new TileBuffer(map.getSize());
+		publish();
+	}
+
+	private void publish() {
+		if (tileBuffer != null) {
+			tileBuffer.publish(map);
+		}
+	}
+
+	@Override
 	public void render(Window w) {
-		map.render(w);
+		tileBuffer.render(w);
 	}
 
+	@Override
 	public void update() {
 		if (!map.getEntities().isEmpty()) {
 			if (moveCounter <= 0) {
-				time++;
-				Logger.debug("Time: " + time, Category.SYSTEM);
-				map.update();
-
-				foodCounter--;
-				if (foodCounter <= 0) {
-					map.setEmptyTile(TileType.FOOD);
-					foodCounter = FOOD_DELAY;
-				}
-
+				tick();
 				moveCounter = MOVE_DELAY;
 			}
 
@@ -73,11 +144,45 @@ public class Village {
 		}
 	}
 
+	private void tick() {
+		time++;
+		ticks++;
+		Logger.debug("Time: " + time, Category.SYSTEM);
+		map.update();
+
+		foodCounter--;
+		if (foodCounter <= 0) {
+			map.setEmptyTile(TileType.FOOD);
+			foodCounter = FOOD_DELAY;
+		}
+		publish();
+	}
+
+	public void runGenerations(int count) {
+		for (int i = 0; i < count; i++) {
+			if (generationOver) {
+				startGeneration();
+			}
+			while (!map.getEntities().isEmpty()) {
+				tick();
+			}
+			endGeneration();
+		}
+	}
+
 	public void createNextGame() {
+		endGeneration();
+		startGeneration();
+	}
+
+	public void endGeneration() {
 		ReinforcementEntity fittestGenEntity = population.getFittest();
 		if (fittestEntity == null || (fittestGenEntity.getFitness() > fittestEntity.getFitness())) {
 			fittestEntity = fittestGenEntity;
 		}
+		if (fittestGenEntity.getFitness() > bestFitness) {
+			bestFitness = fittestGenEntity.getFitness();
+		}
 		float generationFitness = population.averageFitness();
 		if (generationFitness > fittestGeneration) {
 			fittestGeneration = generationFitness;
@@ -89,10 +194,38 @@ public class Village {
 		Logger.info("Fittest Entity of all time:");
 		fittestEntity.printStats();
 		Logger.info("Fittest Generation of all time: " + fittestGeneration);
+		if (learner != null) {
+			learner.report();
+		}
 		time = 0;
 		generation++;
+		generationOver = true;
+	}
+
+	public void startGeneration() {
 		map.reset();
 		createInitialFood();
+		population.resetStats();
 		map.spawnPopulation(population);
+		generationOver = false;
+		publish();
+	}
+
+	@Override
+	public int getGeneration() {
+		return generation;
+	}
+
+	@Override
+	public long getTicks() {
+		return ticks;
+	}
+
+	public int getBestFitness() {
+		return bestFitness;
+	}
+
+	public Population getPopulation() {
+		return population;
 	}
 }
@@ -0,0 +1,19 @@
+package random;
+
+import java.util.SplittableRandom;
+
+public final class RandomStreams {
+
+	private static SplittableRandom master = new SplittableRandom();
+
+	private RandomStreams() {
+	}
+
+	public static synchronized void setSeed(long seed) {
+		master = new SplittableRandom(seed);
+	}
+
+	public static synchronized SplittableRandom split() {
+		return master.split();
+	}
+}
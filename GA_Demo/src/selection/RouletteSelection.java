@@ -0,0 +1,63 @@
+package selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import entities.Agent;
+
+public class RouletteSelection<T extends Agent> implements Selection<T> {
+
+	// Fitness proportionate picks in O(1) each from a Vose alias table built in O(n)
+	@Override
+	public List<T> select(List<T> candidates, int count, SplittableRandom rand) {
+		List<T> selected = new ArrayList<>(count);
+		int n = candidates.size();
+		if (n == 0) {
+			return selected;
+		}
+
+		double total = 0;
+		for (T candidate : candidates) {
+			total += Math.max(candidate.getFitness(), 0);
+		}
+
+		double[] probability = new double[n];
+		int[] alias = new int[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < n; i++) {
+			probability[i] = total == 0 ? 1 : Math.max(candidates.get(i).getFitness(), 0) * n / total;
+			if (probability[i] < 1) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			alias[less] = more;
+			probability[more] = probability[more] + probability[less] - 1;
+			if (probability[more] < 1) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		while (largeCount > 0) {
+			probability[large[--largeCount]] = 1;
+		}
+		while (smallCount > 0) {
+			probability[small[--smallCount]] = 1;
+		}
+
+		for (int i = 0; i < count; i++) {
+			int column = rand.nextInt(n);
+			selected.add(rand.nextDouble() < probability[column] ? candidates.get(column) : candidates.get(alias[column]));
+		}
+		return selected;
+	}
+}
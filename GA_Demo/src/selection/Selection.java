@@ -0,0 +1,12 @@
+package selection;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import entities.Agent;
+
+public interface Selection<T extends Agent> {
+
+	// Picks count parents from the candidates without reordering or modifying the candidate list
+	List<T> select(List<T> candidates, int count, SplittableRandom rand);
+}
@@ -0,0 +1,38 @@
+package selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import entities.Agent;
+
+public class TournamentSelection<T extends Agent> implements Selection<T> {
+
+	private int tournamentSize;
+
+	public TournamentSelection(int tournamentSize) {
+		if (tournamentSize < 1) {
+			throw new IllegalArgumentException("Tournament size must be at least 1");
+		}
+		this.tournamentSize = tournamentSize;
+	}
+
+	@Override
+	public List<T> select(List<T> candidates, int count, SplittableRandom rand) {
+		List<T> selected = new ArrayList<>(count);
+		if (candidates.isEmpty()) {
+			return selected;
+		}
+		for (int i = 0; i < count; i++) {
+			T winner = candidates.get(rand.nextInt(candidates.size()));
+			for (int j = 1; j < tournamentSize; j++) {
+				T challenger = candidates.get(rand.nextInt(candidates.size()));
+				if (challenger.getFitness() > winner.getFitness()) {
+					winner = challenger;
+				}
+			}
+			selected.add(winner);
+		}
+		return selected;
+	}
+}
@@ -0,0 +1,59 @@
+package selection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import entities.Agent;
+
+public class TruncationSelection<T extends Agent> implements Selection<T> {
+
+	private static final Comparator<Agent> FITTEST_FIRST = (a, b) -> Integer.compare(b.getFitness(), a.getFitness());
+
+	// Returns the count fittest candidates, fittest first, by quickselecting a copy and sorting only the top.
+	// Pivots are drawn from rand, and a run of passes that fail to narrow the range falls back to a sort
+	@Override
+	public List<T> select(List<T> candidates, int count, SplittableRandom rand) {
+		List<T> copy = new ArrayList<>(candidates);
+		count = Math.min(count, copy.size());
+		if (count <= 0) {
+			return new ArrayList<>();
+		}
+		int left = 0;
+		int right = copy.size() - 1;
+		int passesLeft = 2 * (32 - Integer.numberOfLeadingZeros(copy.size()));
+		while (left < right) {
+			if (passesLeft-- == 0) {
+				Collections.sort(copy.subList(left, right + 1), FITTEST_FIRST);
+				break;
+			}
+			int pivotFitness = copy.get(left + rand.nextInt(right - left + 1)).getFitness();
+			// Three way partition into fitter, equal and less fit, so runs of equal fitness are settled in one pass
+			int fitter = left;
+			int lessFit = right;
+			int i = left;
+			while (i <= lessFit) {
+				int fitness = copy.get(i).getFitness();
+				if (fitness > pivotFitness) {
+					Collections.swap(copy, fitter++, i++);
+				} else if (fitness < pivotFitness) {
+					Collections.swap(copy, i, lessFit--);
+				} else {
+					i++;
+				}
+			}
+			if (count - 1 < fitter) {
+				right = fitter - 1;
+			} else if (count - 1 > lessFit) {
+				left = lessFit + 1;
+			} else {
+				break;
+			}
+		}
+		List<T> fittest = new ArrayList<>(copy.subList(0, count));
+		Collections.sort(fittest, FITTEST_FIRST);
+		return fittest;
+	}
+}